@@ -0,0 +1,55 @@
+package com.ash.tracker_service.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds repository stand-ins backed by plain lambdas so benchmarks measure our code
+ * rather than a Mongo round trip. Any method without a handler fails loudly.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static <T> Builder<T> of(Class<T> repositoryType) {
+        return new Builder<>(repositoryType);
+    }
+
+    public static final class Builder<T> {
+
+        private final Class<T> type;
+        private final Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        public Builder<T> on(String method, Function<Object[], Object> handler) {
+            handlers.put(method, handler);
+            return this;
+        }
+
+        public T build() {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+                switch (method.getName()) {
+                    case "toString":
+                        return "InMemory" + type.getSimpleName();
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        Function<Object[], Object> handler = handlers.get(method.getName());
+                        if (handler == null) {
+                            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                        }
+                        return handler.apply(args);
+                }
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.bench.InMemoryRepositories;
+import com.ash.tracker_service.dto.PortfolioResponseDTO;
+import com.ash.tracker_service.entity.SoldStock;
+import com.ash.tracker_service.entity.StockHolding;
+import com.ash.tracker_service.entity.UserPortfolio;
+import com.ash.tracker_service.repository.MarketPriceRepository;
+import com.ash.tracker_service.repository.MissingIsinRepository;
+import com.ash.tracker_service.repository.SoldStockRepository;
+import com.ash.tracker_service.repository.UserPortfolioRepository;
+import com.ash.tracker_service.util.KeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values a portfolio with every price already cached, which is the steady state once the
+ * refresh scheduler is running. Mongo and the external price client are in-memory stand-ins.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioValuationBenchmark {
+
+    @Param({"10", "50", "200", "500"})
+    private int holdings;
+
+    private PortfolioServiceImpl portfolioService;
+    private UserPortfolio portfolio;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Random random = new Random(42);
+
+        MarketPriceRepository marketPriceRepository = InMemoryRepositories.of(MarketPriceRepository.class)
+                .on("findByIsinIn", args -> Collections.emptyList())
+                .build();
+        UserPortfolioRepository userPortfolioRepository = InMemoryRepositories.of(UserPortfolioRepository.class).build();
+        MarketPriceCache priceCache = new MarketPriceCache(registry, 10_000, 3600);
+        MarketPriceService marketPriceService = new MarketPriceService(
+                marketPriceRepository,
+                isins -> Collections.emptyMap(),
+                priceCache,
+                new MarketPriceWriter(null, registry, 500),
+                new PortfolioSnapshotService(null, marketPriceRepository, userPortfolioRepository,
+                        KeyRing.parse("0123456789abcdef0123456789abcdef", "", "")));
+
+        List<StockHolding> stocks = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < holdings; i++) {
+            String isin = String.format("INE%03dA01%03d", i % 1000, i / 1000);
+            double avg = 10 + random.nextInt(500_000) / 100.0;
+            int quantity = 1 + random.nextInt(500);
+            stocks.add(StockHolding.builder()
+                    .stockName("COMPANY " + i + " LIMITED")
+                    .isin(isin)
+                    .quantity(quantity)
+                    .averageBuyPrice(avg)
+                    .buyValue(avg * quantity)
+                    .lastUpdated(now)
+                    .build());
+            priceCache.put(isin, avg * (0.7 + random.nextDouble() * 0.6), now);
+        }
+
+        List<SoldStock> soldStocks = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            soldStocks.add(SoldStock.builder()
+                    .id(String.format("%024x", 1000 - i))
+                    .userId("user-1")
+                    .accountId("account-1")
+                    .stockName("SOLD " + i)
+                    .isin("INE999A01" + String.format("%03d", i))
+                    .quantitySold(10)
+                    .averageBuyPrice(100.0)
+                    .sellPrice(120.0)
+                    .investedValue(1000.0)
+                    .soldValue(1200.0)
+                    .realisedPL(200.0)
+                    .soldAt(now)
+                    .build());
+        }
+        SoldStockRepository soldStockRepository = InMemoryRepositories.of(SoldStockRepository.class)
+                .on("sumRealisedPLByUserIdAndAccountId", args -> 4200.0)
+                .on("findByUserIdAndAccountIdOrderByIdDesc", args -> soldStocks)
+                .build();
+
+        portfolioService = new PortfolioServiceImpl(
+                userPortfolioRepository,
+                soldStockRepository,
+                marketPriceService,
+                new MissingIsinService(InMemoryRepositories.of(MissingIsinRepository.class).build()),
+                new PortfolioValuationCoalescer(0));
+
+        portfolio = UserPortfolio.builder()
+                .id("portfolio-1")
+                .userId("user-1")
+                .accountId("account-1")
+                .accountName("Primary")
+                .stocks(stocks)
+                .totalInvestment(stocks.stream().mapToDouble(StockHolding::getBuyValue).sum())
+                .updatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public PortfolioResponseDTO convertToResponseDTO() {
+        return portfolioService.convertToResponseDTO(portfolio);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.Ticker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickerSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "reliance", "tata", "infosys", "hindustan", "bajaj", "adani", "mahindra", "larsen",
+            "asian", "sun", "kotak", "axis", "maruti", "wipro", "titan", "nestle", "ultratech",
+            "grasim", "cipla", "divis", "britannia", "hero", "eicher", "bharat", "jindal"
+    };
+    private static final String[] SUFFIXES = {
+            "limited", "industries ltd", "finance limited", "motors ltd", "pharma limited",
+            "bank ltd", "power ltd", "chemicals limited", "technologies ltd"
+    };
+
+    @Param({"10000", "20000"})
+    private int tickerCount;
+
+    @Param({"tat", "reliance", "relaince industris", "kotk bank"})
+    private String query;
+
+    private TickerSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Ticker> tickers = new ArrayList<>(tickerCount);
+        for (int i = 0; i < tickerCount; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String name = word + " " + Integer.toString(random.nextInt(1 << 20), 36) + " "
+                    + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            tickers.add(Ticker.builder()
+                    .id(String.valueOf(i))
+                    .source(i % 2 == 0 ? "NSE" : "BSE")
+                    .symbol((word + i).toUpperCase())
+                    .name(name)
+                    .isin(String.format("INE%03dA01%03d", i % 1000, i / 1000))
+                    .viewCount((long) random.nextInt(10_000))
+                    .build());
+        }
+        index = new TickerSearchIndex(null);
+        index.replace(tickers);
+    }
+
+    @Benchmark
+    public List<Ticker> exact() {
+        return index.search(query, 5);
+    }
+
+    @Benchmark
+    public List<Ticker> fuzzy() {
+        return index.searchFuzzy(query, 5);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.Ticker;
+import com.ash.tracker_service.entity.TickerSheetMapping.SheetCandidate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickerSheetMatchingBenchmark {
+
+    private static final String[] WORDS = {
+            "reliance", "tata", "infosys", "hindustan", "bajaj", "adani", "mahindra", "larsen",
+            "asian", "sun", "kotak", "axis", "maruti", "wipro", "titan", "nestle", "ultratech",
+            "grasim", "cipla", "divis", "britannia", "hero", "eicher", "bharat", "jindal"
+    };
+    private static final String[] SUFFIXES = {
+            "limited", "ltd", "industries ltd", "finance limited", "motors ltd", "pharma limited",
+            "bank ltd", "power ltd", "chemicals limited", "technologies ltd"
+    };
+
+    @Param({"1000", "5000"})
+    private int sheetCount;
+
+    private TickerSheetMappingService service;
+    private List<Map<String, String>> sheets;
+    private Ticker ticker;
+    private String tickerName;
+    private String symbol;
+    private String sheetName;
+
+    @Setup
+    public void setUp() {
+        service = new TickerSheetMappingService(null, null, null, null);
+        Random random = new Random(42);
+
+        sheets = new ArrayList<>(sheetCount);
+        for (int i = 0; i < sheetCount; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " "
+                    + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            sheets.add(Map.of("name", name, "spreadsheetId", "sheet-" + i, "gid", String.valueOf(i)));
+        }
+
+        ticker = Ticker.builder()
+                .source("NSE")
+                .symbol("TATAMOTORS")
+                .name("Tata Motors Limited")
+                .isin("INE155A01022")
+                .build();
+        tickerName = ticker.getName().toLowerCase();
+        symbol = ticker.getSymbol().toLowerCase();
+        sheetName = "tata motors ltd - dvr";
+    }
+
+    @Benchmark
+    public List<SheetCandidate> findCandidates() {
+        return service.findCandidates(ticker, sheets);
+    }
+
+    @Benchmark
+    public int scoreMatch() {
+        return service.scoreMatch(tickerName, symbol, sheetName);
+    }
+}
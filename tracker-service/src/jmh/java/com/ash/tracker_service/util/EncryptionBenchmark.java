@@ -0,0 +1,82 @@
+package com.ash.tracker_service.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncryptionBenchmark {
+
+    private static final String KEY = "0123456789abcdef0123456789abcdef";
+
+    @Param({"INE002A01018", "RELIANCE INDUSTRIES LTD"})
+    private String plainText;
+
+    private String cipherText;
+
+    @Setup
+    public void setUp() {
+        cipherText = EncryptionUtil.encrypt(plainText, KEY);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return EncryptionUtil.encrypt(plainText, KEY);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return EncryptionUtil.decrypt(cipherText, KEY);
+    }
+
+    @Benchmark
+    public String blindIndex() {
+        return EncryptionUtil.blindIndex(plainText, KEY);
+    }
+
+    /**
+     * The previous implementation, which built the key, SecureRandom and Cipher on every
+     * call. Kept here as the baseline the cached engine is measured against.
+     */
+    @Benchmark
+    public String encryptUncached() throws Exception {
+        SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+
+        byte[] combined = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+        return "ENC:" + Base64.getEncoder().encodeToString(combined);
+    }
+
+    @Benchmark
+    public String decryptUncached() throws Exception {
+        byte[] combined = Base64.getDecoder().decode(cipherText.substring(4));
+        SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+
+        byte[] iv = new byte[12];
+        System.arraycopy(combined, 0, iv, 0, 12);
+        byte[] encrypted = new byte[combined.length - 12];
+        System.arraycopy(combined, 12, encrypted, 0, encrypted.length);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ash.tracker_service.util;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExcelParserBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int holdings;
+
+    private MockMultipartFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = new MockMultipartFile("file", "holdings.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", brokerExport(holdings));
+    }
+
+    @Benchmark
+    public List<ExcelStockRowDTO> parse() {
+        return ExcelParser.parse(file);
+    }
+
+    /**
+     * Mirrors a broker holdings statement: a client block above the table, then the
+     * "Stock Name" header and one row per holding with text-formatted numbers.
+     */
+    static byte[] brokerExport(int holdings) throws IOException {
+        Random random = new Random(42);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Holdings");
+            String[] preamble = {"Holdings Statement", "Client ID: AB1234", "Client Name: Test User", "As on: 31-03-2025", ""};
+            int r = 0;
+            for (String line : preamble) {
+                sheet.createRow(r++).createCell(0).setCellValue(line);
+            }
+
+            Row header = sheet.createRow(r++);
+            String[] columns = {"Stock Name", "ISIN", "Quantity", "Average buy price", "Buy value", "Closing price", "Closing value", "Unrealised P&L"};
+            for (int c = 0; c < columns.length; c++) {
+                header.createCell(c).setCellValue(columns[c]);
+            }
+
+            for (int i = 0; i < holdings; i++) {
+                Row row = sheet.createRow(r++);
+                int quantity = 1 + random.nextInt(500);
+                double avg = 10 + random.nextInt(500_000) / 100.0;
+                double close = avg * (0.7 + random.nextDouble() * 0.6);
+                row.createCell(0).setCellValue("COMPANY " + i + " LIMITED");
+                row.createCell(1).setCellValue(String.format("INE%03dA01%03d", i % 1000, i / 1000));
+                row.createCell(2).setCellValue(quantity);
+                row.createCell(3).setCellValue(String.format("%,.2f", avg));
+                row.createCell(4).setCellValue(avg * quantity);
+                row.createCell(5).setCellValue(close);
+                row.createCell(6).setCellValue(close * quantity);
+                row.createCell(7).setCellValue((close - avg) * quantity);
+            }
+
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ash.tracker_service.config;
+
+import com.ash.tracker_service.util.KeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EncryptionConfig {
+
+    @Bean
+    public KeyRing keyRing(@Value("${app.encryption.key}") String legacyKey,
+                           @Value("${app.encryption.keys:}") String keys,
+                           @Value("${app.encryption.active-key-id:}") String activeKeyId) {
+        return KeyRing.parse(legacyKey, keys, activeKeyId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ash.tracker_service.config;
+
+import com.ash.tracker_service.entity.MissingIsin;
+import com.ash.tracker_service.entity.Ticker;
+import com.ash.tracker_service.service.IsinSymbolResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class IsinSymbolResolverListener {
+
+    private final IsinSymbolResolver isinSymbolResolver;
+
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        Object source = event.getSource();
+        if (source instanceof Ticker) {
+            isinSymbolResolver.onTickerChanged();
+        } else if (source instanceof MissingIsin record) {
+            isinSymbolResolver.onOverrideSaved(record);
+        }
+    }
+
+    @EventListener
+    public void onAfterDelete(AfterDeleteEvent<?> event) {
+        if ("tickers".equals(event.getCollectionName())) {
+            isinSymbolResolver.onTickerChanged();
+        } else if ("missing_isins".equals(event.getCollectionName())) {
+            isinSymbolResolver.onOverrideDeleted();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ash.tracker_service.config;
+
+import com.ash.tracker_service.entity.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexManager {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            UserPortfolio.class,
+            SoldStock.class,
+            Ticker.class,
+            MissingIsin.class,
+            TickerSheetMapping.class,
+            StockNewsItem.class,
+            NewsArticle.class,
+            Watchlist.class,
+            Account.class
+    );
+
+    private static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private record CaseInsensitiveIndex(String collection, String field) {
+    }
+
+    private static final List<CaseInsensitiveIndex> CASE_INSENSITIVE_INDEXES = List.of(
+            new CaseInsensitiveIndex("tickers", "symbol"),
+            new CaseInsensitiveIndex("ticker_sheet_mappings", "symbol"),
+            new CaseInsensitiveIndex("stock_news_cache", "symbol"),
+            new CaseInsensitiveIndex("stock_news_cache", "isin")
+    );
+
+    private record PlanCheck(String name, String collection, Document filter, Document sort, boolean caseInsensitive) {
+    }
+
+    private static final List<PlanCheck> PLAN_CHECKS = List.of(
+            new PlanCheck("UserPortfolioRepository.findByUserIdAndAccountId", "user_portfolios",
+                    new Document("userId", "u").append("accountId", "a"), null, false),
+            new PlanCheck("SoldStockRepository.findByUserIdAndAccountId", "sold_stocks",
+                    new Document("userId", "u").append("accountId", "a"), null, false),
+            new PlanCheck("TickerRepository.findByIsinAndSource", "tickers",
+                    new Document("isin", "i").append("source", "NSE"), null, false),
+            new PlanCheck("MissingIsinRepository.findByIsin", "missing_isins",
+                    new Document("isin", "i"), null, false),
+            new PlanCheck("TickerSheetMappingRepository.findByIsin", "ticker_sheet_mappings",
+                    new Document("isin", "i"), null, false),
+            new PlanCheck("TickerSheetMappingRepository.findBySymbolIgnoreCase", "ticker_sheet_mappings",
+                    new Document("symbol", "s"), null, true),
+            new PlanCheck("StockNewsRepository.findBySymbolIgnoreCase", "stock_news_cache",
+                    new Document("symbol", "s"), null, true),
+            new PlanCheck("StockNewsRepository.findByIsinIgnoreCase", "stock_news_cache",
+                    new Document("isin", "i"), null, true),
+            new PlanCheck("NewsRepository.findBySourceTypeAndPublishedTrueOrderByCreatedAtDesc", "news_articles",
+                    new Document("sourceType", "ADMIN").append("published", true), new Document("createdAt", -1), false),
+            new PlanCheck("NewsRepository.findByPublishedTrueOrderByCreatedAtDesc", "news_articles",
+                    new Document("published", true), new Document("createdAt", -1), false),
+            new PlanCheck("NewsRepository.findAllByOrderByCreatedAtDesc", "news_articles",
+                    new Document(), new Document("createdAt", -1), false)
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${mongo.indexes.explain-check:true}")
+    private boolean explainCheck;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations ops = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(index -> {
+                try {
+                    ops.ensureIndex(index);
+                } catch (Exception e) {
+                    log.error("Failed to create index {} on {}: {}", index.getIndexKeys(), entity.getSimpleName(), e.getMessage());
+                }
+            });
+        }
+
+        for (CaseInsensitiveIndex ci : CASE_INSENSITIVE_INDEXES) {
+            try {
+                mongoTemplate.indexOps(ci.collection()).ensureIndex(
+                        new Index().on(ci.field(), Sort.Direction.ASC)
+                                .named(ci.field() + "_ci_idx")
+                                .collation(CASE_INSENSITIVE));
+            } catch (Exception e) {
+                log.error("Failed to create case-insensitive index on {}.{}: {}", ci.collection(), ci.field(), e.getMessage());
+            }
+        }
+
+        if (explainCheck) {
+            checkQueryPlans();
+        }
+    }
+
+    private void checkQueryPlans() {
+        List<String> collScans = new ArrayList<>();
+
+        for (PlanCheck check : PLAN_CHECKS) {
+            Document find = new Document("find", check.collection()).append("filter", check.filter());
+            if (check.sort() != null) {
+                find.append("sort", check.sort());
+            }
+            if (check.caseInsensitive()) {
+                find.append("collation", CASE_INSENSITIVE.toDocument());
+            }
+
+            try {
+                Document explain = mongoTemplate.getDb().runCommand(
+                        new Document("explain", find).append("verbosity", "queryPlanner"));
+                Object plan = explain.get("queryPlanner", Document.class).get("winningPlan");
+                if (containsStage(plan, "COLLSCAN")) {
+                    collScans.add(check.name());
+                }
+            } catch (Exception e) {
+                log.warn("Explain failed for {}: {}", check.name(), e.getMessage());
+            }
+        }
+
+        if (collScans.isEmpty()) {
+            log.info("Index check passed: {} hot queries use indexes", PLAN_CHECKS.size());
+        } else {
+            log.warn("Index check: {} hot queries plan a COLLSCAN: {}", collScans.size(), collScans);
+        }
+    }
+
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document doc) {
+            if (stage.equals(doc.getString("stage"))) {
+                return true;
+            }
+            for (Object value : doc.values()) {
+                if (containsStage(value, stage)) return true;
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,6 +3,9 @@ package com.ash.tracker_service.config;
 import com.ash.tracker_service.entity.StockHolding;
 import com.ash.tracker_service.entity.UserPortfolio;
 import com.ash.tracker_service.util.EncryptionUtil;
+import com.ash.tracker_service.util.KeyRing;
+import com.ash.tracker_service.util.LazyDecryptingHoldings;
+import lombok.RequiredArgsConstructor;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
@@ -13,10 +16,16 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 
 @Component
+@RequiredArgsConstructor
 public class PortfolioEncryptionListener extends AbstractMongoEventListener<UserPortfolio> {
 
-    @Value("${app.encryption.key}")
-    private String encryptionKey;
+    private final KeyRing keyRing;
+
+    @Value("${app.encryption.blind-index:false}")
+    private boolean blindIndex;
+
+    @Value("${app.encryption.lazy-decrypt:true}")
+    private boolean lazyDecrypt;
 
     @Override
     public void onBeforeSave(BeforeSaveEvent<UserPortfolio> event) {
@@ -32,11 +41,14 @@ public class PortfolioEncryptionListener extends AbstractMongoEventListener<User
             String stockName = stockDoc.getString("stockName");
             String isin = stockDoc.getString("isin");
 
+            if (blindIndex && isin != null && !EncryptionUtil.isEncrypted(isin)) {
+                stockDoc.put("isinHash", keyRing.blindIndex(isin));
+            }
             if (stockName != null && !EncryptionUtil.isEncrypted(stockName)) {
-                stockDoc.put("stockName", EncryptionUtil.encrypt(stockName, encryptionKey));
+                stockDoc.put("stockName", keyRing.encrypt(stockName));
             }
             if (isin != null && !EncryptionUtil.isEncrypted(isin)) {
-                stockDoc.put("isin", EncryptionUtil.encrypt(isin, encryptionKey));
+                stockDoc.put("isin", keyRing.encrypt(isin));
             }
         }
     }
@@ -46,12 +58,17 @@ public class PortfolioEncryptionListener extends AbstractMongoEventListener<User
         UserPortfolio portfolio = event.getSource();
         if (portfolio.getStocks() == null) return;
 
+        if (lazyDecrypt) {
+            portfolio.setStocks(new LazyDecryptingHoldings(portfolio.getStocks(), keyRing));
+            return;
+        }
+
         for (StockHolding stock : portfolio.getStocks()) {
             if (EncryptionUtil.isEncrypted(stock.getStockName())) {
-                stock.setStockName(EncryptionUtil.decrypt(stock.getStockName(), encryptionKey));
+                stock.setStockName(keyRing.decrypt(stock.getStockName()));
             }
             if (EncryptionUtil.isEncrypted(stock.getIsin())) {
-                stock.setIsin(EncryptionUtil.decrypt(stock.getIsin(), encryptionKey));
+                stock.setIsin(keyRing.decrypt(stock.getIsin()));
             }
         }
     }
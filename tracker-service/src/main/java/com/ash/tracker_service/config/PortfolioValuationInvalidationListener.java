@@ -0,0 +1,50 @@
+package com.ash.tracker_service.config;
+
+import com.ash.tracker_service.entity.SoldStock;
+import com.ash.tracker_service.entity.UserPortfolio;
+import com.ash.tracker_service.service.PortfolioSnapshotService;
+import com.ash.tracker_service.service.PortfolioValuationCoalescer;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PortfolioValuationInvalidationListener {
+
+    private final PortfolioValuationCoalescer valuationCoalescer;
+    private final PortfolioSnapshotService snapshotService;
+
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        Object source = event.getSource();
+        if (source instanceof UserPortfolio portfolio) {
+            snapshotService.onPortfolioSaved(portfolio);
+            valuationCoalescer.invalidate(portfolio.getUserId());
+        } else if (source instanceof SoldStock soldStock) {
+            valuationCoalescer.invalidate(soldStock.getUserId());
+        }
+    }
+
+    @EventListener
+    public void onAfterDelete(AfterDeleteEvent<?> event) {
+        String collection = event.getCollectionName();
+        if (!"user_portfolios".equals(collection) && !"sold_stocks".equals(collection)) return;
+
+        // deleteByUserId carries the user in the filter; deletes by id do not, so drop everything
+        Document filter = event.getSource();
+        Object portfolioId = filter != null ? filter.get("_id") : null;
+        if ("user_portfolios".equals(collection) && portfolioId != null) {
+            snapshotService.onPortfolioDeleted(portfolioId.toString());
+        }
+        Object userId = filter != null ? filter.get("userId") : null;
+        if (userId instanceof String id) {
+            valuationCoalescer.invalidate(id);
+        } else {
+            valuationCoalescer.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ash.tracker_service.config;
+
+import com.ash.tracker_service.entity.Ticker;
+import com.ash.tracker_service.service.TickerSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TickerSearchIndexListener {
+
+    private final TickerSearchIndex tickerSearchIndex;
+
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        if (event.getSource() instanceof Ticker ticker) {
+            tickerSearchIndex.onSaved(ticker);
+        }
+    }
+
+    @EventListener
+    public void onAfterDelete(AfterDeleteEvent<?> event) {
+        if ("tickers".equals(event.getCollectionName())) {
+            tickerSearchIndex.reload();
+        }
+    }
+}
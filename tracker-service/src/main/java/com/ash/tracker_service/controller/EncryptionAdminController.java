@@ -0,0 +1,49 @@
+package com.ash.tracker_service.controller;
+
+import com.ash.tracker_service.service.PortfolioReEncryptionService;
+import com.ash.tracker_service.service.PortfolioReEncryptionService.JobResult;
+import com.ash.tracker_service.service.PortfolioReEncryptionService.JobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/encryption")
+@RequiredArgsConstructor
+public class EncryptionAdminController {
+
+    private final PortfolioReEncryptionService reEncryptionService;
+
+    @PostMapping("/reencrypt")
+    public ResponseEntity<Map<String, String>> reEncrypt(@RequestParam(defaultValue = "false") boolean restart) {
+        JobResult job = reEncryptionService.getJobStatus();
+        if (job.status == JobStatus.RUNNING) {
+            return ResponseEntity.accepted()
+                    .body(Map.of("status", "RUNNING", "message", "Re-encryption already in progress"));
+        }
+        reEncryptionService.reEncryptAsync(restart);
+        return ResponseEntity.accepted()
+                .body(Map.of("status", "STARTED", "message", "Re-encryption started. Poll /job-status for progress."));
+    }
+
+    @PostMapping("/reencrypt/stop")
+    public ResponseEntity<Map<String, String>> stop() {
+        reEncryptionService.requestStop();
+        return ResponseEntity.accepted()
+                .body(Map.of("status", "STOPPING", "message", "Re-encryption will stop after the current batch"));
+    }
+
+    @GetMapping("/job-status")
+    public ResponseEntity<Map<String, Object>> jobStatus() {
+        JobResult job = reEncryptionService.getJobStatus();
+        return ResponseEntity.ok(Map.of(
+                "status",     job.status.name(),
+                "message",    job.message,
+                "counts",     job.counts,
+                "startedAt",  job.startedAt  != null ? job.startedAt.toString()  : "",
+                "finishedAt", job.finishedAt != null ? job.finishedAt.toString() : ""
+        ));
+    }
+}
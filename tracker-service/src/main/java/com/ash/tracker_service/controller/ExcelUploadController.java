@@ -1,6 +1,7 @@
 package com.ash.tracker_service.controller;
 
 import com.ash.tracker_service.service.ExcelUploadService;
+import com.ash.tracker_service.service.UploadJobService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -11,6 +12,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class ExcelUploadController {
 
     private final ExcelUploadService excelUploadService;
+    private final UploadJobService uploadJobService;
 
     @PostMapping
     public Object uploadExcel(
@@ -21,4 +23,22 @@ public class ExcelUploadController {
     ) {
         return excelUploadService.upload(userId, accountId, file, mode);
     }
+
+    @PostMapping("/jobs")
+    public UploadJobService.UploadJob submitUploadJob(
+            @RequestParam String userId,
+            @RequestParam String accountId,
+            @RequestParam String mode,
+            @RequestPart MultipartFile file
+    ) {
+        return uploadJobService.submit(userId, accountId, file, mode);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public UploadJobService.UploadJob getUploadJob(
+            @PathVariable String jobId,
+            @RequestParam String userId
+    ) {
+        return uploadJobService.getJob(userId, jobId);
+    }
 }
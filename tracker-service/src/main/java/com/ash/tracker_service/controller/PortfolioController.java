@@ -2,6 +2,7 @@ package com.ash.tracker_service.controller;
 
 import com.ash.tracker_service.dto.ConfirmSoldStocksRequestDTO;
 import com.ash.tracker_service.dto.PortfolioResponseDTO;
+import com.ash.tracker_service.dto.SoldStockPageDTO;
 import com.ash.tracker_service.service.PortfolioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -36,6 +37,16 @@ public class PortfolioController {
         return portfolioService.getAllPortfolios(userId);
     }
 
+    @GetMapping("/sold")
+    public SoldStockPageDTO getSoldStocks(
+            @RequestParam String userId,
+            @RequestParam String accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return portfolioService.getSoldStocks(userId, accountId, cursor, limit);
+    }
+
     @PostMapping("/confirm-sold")
     public void confirmSoldStocks(@RequestBody ConfirmSoldStocksRequestDTO request) {
         portfolioService.confirmSoldStocks(request);
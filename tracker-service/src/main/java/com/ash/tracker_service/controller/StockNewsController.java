@@ -2,6 +2,8 @@ package com.ash.tracker_service.controller;
 
 import com.ash.tracker_service.entity.StockNewsItem;
 import com.ash.tracker_service.service.StockNewsSyncService;
+import com.ash.tracker_service.service.StockNewsSyncService.JobResult;
+import com.ash.tracker_service.service.StockNewsSyncService.JobStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -67,11 +69,25 @@ public class StockNewsController {
 
     @PostMapping("/api/admin/stock-news/sync")
     public ResponseEntity<Map<String, Object>> triggerSync() {
-        int count = stockNewsSyncService.syncAll();
+        JobResult job = stockNewsSyncService.getSyncStatus();
+        if (job.status == JobStatus.RUNNING) {
+            return ResponseEntity.accepted()
+                    .body(Map.of("status", "RUNNING", "message", "News sync already in progress"));
+        }
+        stockNewsSyncService.syncAllAsync();
+        return ResponseEntity.accepted()
+                .body(Map.of("status", "STARTED", "message", "News sync started. Poll /sync/job-status for progress."));
+    }
+
+    @GetMapping("/api/admin/stock-news/sync/job-status")
+    public ResponseEntity<Map<String, Object>> syncStatus() {
+        JobResult job = stockNewsSyncService.getSyncStatus();
         return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "syncedCount", count,
-                "message", "Synced " + count + " stocks from Google Sheets"
+                "status",     job.status.name(),
+                "message",    job.message,
+                "counts",     job.counts,
+                "startedAt",  job.startedAt  != null ? job.startedAt.toString()  : "",
+                "finishedAt", job.finishedAt != null ? job.finishedAt.toString() : ""
         ));
     }
 }
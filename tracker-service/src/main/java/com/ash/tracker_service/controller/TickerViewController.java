@@ -2,6 +2,7 @@ package com.ash.tracker_service.controller;
 
 import com.ash.tracker_service.entity.Ticker;
 import com.ash.tracker_service.service.TickerViewService;
+import com.ash.tracker_service.service.TrendingTickerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,15 +15,24 @@ import java.util.Map;
 public class TickerViewController {
 
     private final TickerViewService tickerViewService;
+    private final TrendingTickerService trendingTickerService;
 
 
     @PostMapping("/api/stock-view/{symbol}")
     public ResponseEntity<Map<String, String>> recordView(@PathVariable String symbol) {
-        tickerViewService.incrementViewAsync(symbol);
+        tickerViewService.recordView(symbol);
         return ResponseEntity.accepted().body(Map.of("status", "ok", "symbol", symbol));
     }
 
 
+    @GetMapping("/api/stock-view/trending")
+    public ResponseEntity<List<Map<String, Object>>> trending(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingTickerService.getTrending(window, limit));
+    }
+
+
     @GetMapping("/api/admin/stock-view/top")
     public ResponseEntity<List<Ticker>> topViewed() {
         return ResponseEntity.ok(tickerViewService.getTopViewed());
@@ -17,6 +17,7 @@ public class PortfolioResponseDTO {
 
     private List<StockHoldingResponseDTO> stocks;
     private List<SoldStockResponseDTO> soldStocks;
+    private String soldStocksNextCursor;
 
     private double totalInvestment;
     private double totalCurrentValue;
@@ -0,0 +1,15 @@
+package com.ash.tracker_service.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class SoldStockPageDTO {
+
+    private List<SoldStockResponseDTO> items;
+
+    private String nextCursor;
+}
@@ -2,6 +2,7 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -17,6 +18,7 @@ public class Account {
     @Id
     private String id;
 
+    @Indexed
     private String userId;
     private String accountName;
 
@@ -2,6 +2,7 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -15,11 +16,13 @@ import java.time.Instant;
 public class MissingIsin {
     @Id
     private String id;
+    @Indexed
     private String isin;
     private String stockName;
     private String symbol;
     private Instant firstSeenAt;
     private Instant lastSeenAt;
     private Integer occurrenceCount;
+    @Indexed
     private String status;
 }
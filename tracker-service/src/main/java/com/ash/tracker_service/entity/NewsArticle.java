@@ -2,11 +2,16 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "news_articles")
+@CompoundIndex(name = "source_published_created_idx", def = "{'sourceType': 1, 'published': 1, 'createdAt': -1}")
+@CompoundIndex(name = "published_created_idx", def = "{'published': 1, 'createdAt': -1}")
+@CompoundIndex(name = "created_idx", def = "{'createdAt': -1}")
+@CompoundIndex(name = "author_idx", def = "{'authorId': 1}")
 @Getter
 @Setter
 @NoArgsConstructor
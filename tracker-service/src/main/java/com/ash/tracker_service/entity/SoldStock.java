@@ -2,11 +2,13 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "sold_stocks")
+@CompoundIndex(name = "user_account_id_idx", def = "{'userId': 1, 'accountId': 1, '_id': -1}")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -13,6 +13,7 @@ public class StockHolding {
 
     private String stockName;
     private String isin;
+    private String isinHash;
 
     private Integer quantity;
     private Double averageBuyPrice;
@@ -2,6 +2,7 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -32,6 +33,7 @@ public class StockNewsItem {
     private String isin;
 
 
+    @Indexed
     private String spreadsheetId;
 
 
@@ -42,4 +44,20 @@ public class StockNewsItem {
 
 
     private Instant syncedAt;
+
+
+    private List<SheetVersion> sheetVersions;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SheetVersion {
+        private String source;
+        private String etag;
+        private String lastModified;
+        private String contentHash;
+        private int rowCount;
+    }
 }
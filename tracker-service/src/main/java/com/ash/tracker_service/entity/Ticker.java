@@ -2,11 +2,14 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "tickers")
+@CompoundIndex(name = "isin_source_idx", def = "{'isin': 1, 'source': 1}")
+@CompoundIndex(name = "view_count_idx", def = "{'viewCount': -1}")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,6 +2,7 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -20,6 +21,7 @@ public class TickerSheetMapping {
 
 
     private String symbol;
+    @Indexed
     private String isin;
     private String stockName;
 
@@ -27,12 +29,14 @@ public class TickerSheetMapping {
     private String sheetName;
 
 
+    @Indexed
     private String spreadsheetId;
 
 
     private String gid;
 
 
+    @Indexed
     private String status;
 
 
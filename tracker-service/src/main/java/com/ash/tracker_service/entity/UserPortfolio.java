@@ -2,12 +2,15 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "user_portfolios")
+@CompoundIndex(name = "user_account_idx", def = "{'userId': 1, 'accountId': 1}", unique = true)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,6 +21,9 @@ public class UserPortfolio {
     @Id
     private String id;
 
+    @Version
+    private Long version;
+
     private String userId;
     private String accountId;
     private String accountName;
@@ -28,6 +34,9 @@ public class UserPortfolio {
 
     private double totalInvestment;
     private double totalCurrentValue;
+    private double totalUnrealisedPL;
+
+    private Instant valuedAt;
 
     private boolean isDemoData;
 
@@ -2,6 +2,7 @@ package com.ash.tracker_service.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -13,6 +14,7 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Document("watchlists")
+@CompoundIndex(name = "user_name_idx", def = "{'userId': 1, 'name': 1}")
 public class Watchlist {
     @Id
     private String id;
@@ -0,0 +1,28 @@
+package com.ash.tracker_service.repository;
+
+import java.time.Instant;
+
+/**
+ * Closed projection of {@code user_portfolios} without the holdings arrays, for callers
+ * that only need totals and identifiers.
+ */
+public interface PortfolioMetadata {
+
+    String getId();
+
+    String getUserId();
+
+    String getAccountId();
+
+    String getAccountName();
+
+    double getTotalInvestment();
+
+    double getTotalCurrentValue();
+
+    double getTotalUnrealisedPL();
+
+    Instant getValuedAt();
+
+    Instant getUpdatedAt();
+}
@@ -1,6 +1,8 @@
 package com.ash.tracker_service.repository;
 
 import com.ash.tracker_service.entity.SoldStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
@@ -10,5 +12,19 @@ public interface SoldStockRepository extends MongoRepository<SoldStock,String> {
     void deleteByUserId(String userId);
     List<SoldStock> findByUserId(String userId);
 
+    List<SoldStock> findByUserIdAndAccountIdOrderByIdDesc(String userId, String accountId, Pageable pageable);
 
+    List<SoldStock> findByUserIdAndAccountIdAndIdLessThanOrderByIdDesc(String userId, String accountId, String id, Pageable pageable);
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'userId': ?0, 'accountId': ?1 } }",
+            "{ '$group': { '_id': null, 'total': { '$sum': '$realisedPL' } } }"
+    })
+    Double sumRealisedPLByUserIdAndAccountId(String userId, String accountId);
+
+    @Aggregation(pipeline = {
+            "{ '$match': { 'userId': ?0 } }",
+            "{ '$group': { '_id': null, 'total': { '$sum': '$realisedPL' } } }"
+    })
+    Double sumRealisedPLByUserId(String userId);
 }
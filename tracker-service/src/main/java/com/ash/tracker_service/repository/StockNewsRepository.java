@@ -2,6 +2,7 @@ package com.ash.tracker_service.repository;
 
 import com.ash.tracker_service.entity.StockNewsItem;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,8 +15,10 @@ public interface StockNewsRepository extends MongoRepository<StockNewsItem, Stri
 
     List<StockNewsItem> findAllByOrderBySyncedAtDesc();
 
+    @Query(value = "{ 'symbol': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
     Optional<StockNewsItem> findBySymbolIgnoreCase(String symbol);
 
+    @Query(value = "{ 'isin': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
     Optional<StockNewsItem> findByIsinIgnoreCase(String isin);
 
     List<StockNewsItem> findByStockNameContainingIgnoreCase(String name);
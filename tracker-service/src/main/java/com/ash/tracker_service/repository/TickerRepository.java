@@ -4,6 +4,7 @@ import com.ash.tracker_service.entity.Ticker;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,8 +19,5 @@ public interface TickerRepository extends MongoRepository<Ticker, String> {
 
     Optional<Ticker> findByIsinAndSource(String isin, String source);
 
-    Optional<Ticker> findFirstBySymbolIgnoreCase(String symbol);
-
-
-    List<Ticker> findTop20ByOrderByViewCountDesc();
+    List<Ticker> findByIsinInAndSourceIn(Collection<String> isins, Collection<String> sources);
 }
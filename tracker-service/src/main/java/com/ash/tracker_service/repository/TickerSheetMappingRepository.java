@@ -2,6 +2,7 @@ package com.ash.tracker_service.repository;
 
 import com.ash.tracker_service.entity.TickerSheetMapping;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +13,7 @@ public interface TickerSheetMappingRepository extends MongoRepository<TickerShee
 
     Optional<TickerSheetMapping> findByIsin(String isin);
 
+    @Query(value = "{ 'symbol': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
     Optional<TickerSheetMapping> findBySymbolIgnoreCase(String symbol);
 
     Optional<TickerSheetMapping> findBySpreadsheetId(String spreadsheetId);
@@ -11,6 +11,10 @@ public interface UserPortfolioRepository extends MongoRepository<UserPortfolio,
     void deleteByUserId(String userId);
     Optional <List<UserPortfolio>> findByUserId(String userId);
 
+    List<PortfolioMetadata> findMetadataByUserId(String userId);
+
+    boolean existsByUserIdAndAccountId(String userId, String accountId);
+
 
 
     boolean existsByUserId(String userId);
@@ -0,0 +1,179 @@
+package com.ash.tracker_service.scheduler;
+
+import com.ash.tracker_service.entity.SystemSetting;
+import com.ash.tracker_service.entity.Watchlist;
+import com.ash.tracker_service.entity.WatchlistItem;
+import com.ash.tracker_service.repository.SystemSettingRepository;
+import com.ash.tracker_service.repository.WatchlistRepository;
+import com.ash.tracker_service.service.MarketPriceService;
+import com.ash.tracker_service.util.EncryptionUtil;
+import com.ash.tracker_service.util.KeyRing;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarketPriceRefreshScheduler {
+
+    private static final String INTERVAL_SETTING = "STOCK_UPDATE_INTERVAL";
+    private static final String OVERRIDE_SETTING = "MARKET_HOURS_OVERRIDE";
+    private static final long DEFAULT_INTERVAL_SECONDS = 30;
+    private static final long MIN_INTERVAL_SECONDS = 5;
+    private static final int REFRESH_CHUNK = 200;
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 15);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(15, 30);
+
+    private final MarketPriceService marketPriceService;
+    private final SystemSettingRepository systemSettingRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final MongoTemplate mongoTemplate;
+    private final KeyRing keyRing;
+
+    // The refresh can take several fetch deadlines, so it runs off the shared scheduler thread
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hot-price-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Instant lastRefreshAt = Instant.EPOCH;
+
+    // Ticks every 5 seconds so a changed STOCK_UPDATE_INTERVAL takes effect without a restart
+    @Scheduled(fixedDelay = 5000, initialDelay = 30000)
+    public void refreshHotPrices() {
+        try {
+            if (!isMarketOpen() && !readBoolean(OVERRIDE_SETTING)) {
+                return;
+            }
+
+            long interval = Math.max(MIN_INTERVAL_SECONDS, readLong(INTERVAL_SETTING, DEFAULT_INTERVAL_SECONDS));
+            if (Instant.now().isBefore(lastRefreshAt.plusSeconds(interval))) {
+                return;
+            }
+            if (!refreshing.compareAndSet(false, true)) {
+                log.debug("Previous hot price refresh still running, skipping tick");
+                return;
+            }
+            lastRefreshAt = Instant.now();
+
+            try {
+                refreshExecutor.execute(this::runRefresh);
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        } catch (Exception e) {
+            log.error("Hot price refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void runRefresh() {
+        try {
+            List<String> isins = new ArrayList<>(loadHotIsins());
+            if (isins.isEmpty()) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            int refreshed = 0;
+            for (int i = 0; i < isins.size(); i += REFRESH_CHUNK) {
+                List<String> chunk = isins.subList(i, Math.min(i + REFRESH_CHUNK, isins.size()));
+                refreshed += marketPriceService.refreshPrices(new ArrayList<>(chunk)).size();
+            }
+            log.info("Refreshed {}/{} hot prices in {} ms", refreshed, isins.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Hot price refresh failed: {}", e.getMessage(), e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private boolean isMarketOpen() {
+        ZonedDateTime now = ZonedDateTime.now(IST);
+        DayOfWeek day = now.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime time = now.toLocalTime();
+        return !time.isBefore(MARKET_OPEN) && !time.isAfter(MARKET_CLOSE);
+    }
+
+    private Set<String> loadHotIsins() {
+        Set<String> isins = new LinkedHashSet<>();
+
+        Query query = new Query();
+        query.fields().include("stocks.isin");
+        for (Document portfolio : mongoTemplate.find(query, Document.class, "user_portfolios")) {
+            List<Document> stocks = portfolio.getList("stocks", Document.class);
+            if (stocks == null) continue;
+            for (Document stock : stocks) {
+                String isin = stock.getString("isin");
+                if (EncryptionUtil.isEncrypted(isin)) {
+                    isin = keyRing.decrypt(isin);
+                }
+                if (isin != null && !isin.isBlank()) {
+                    isins.add(isin);
+                }
+            }
+        }
+
+        for (Watchlist watchlist : watchlistRepository.findAll()) {
+            if (watchlist.getStocks() == null) continue;
+            for (WatchlistItem item : watchlist.getStocks()) {
+                if (item.getIsin() != null && !item.getIsin().isBlank()) {
+                    isins.add(item.getIsin());
+                }
+            }
+        }
+
+        return isins;
+    }
+
+    private long readLong(String key, long defaultValue) {
+        try {
+            return systemSettingRepository.findById(key)
+                    .map(SystemSetting::getSettingValue)
+                    .map(String::trim)
+                    .map(Long::parseLong)
+                    .orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid {} setting, using {}s", key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private boolean readBoolean(String key) {
+        return systemSettingRepository.findById(key)
+                .map(SystemSetting::getSettingValue)
+                .map(v -> Boolean.parseBoolean(v.trim()))
+                .orElse(false);
+    }
+}
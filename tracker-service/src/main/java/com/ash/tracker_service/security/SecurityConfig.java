@@ -42,7 +42,8 @@ public class SecurityConfig {
                             "/api/admin/missing-isin/**",
                             "/api/admin/app-version",
                             "/api/admin/stats",
-                            "/api/admin/users/**"
+                            "/api/admin/users/**",
+                            "/api/admin/encryption/**"
                         ).hasRole("ADMIN")
                         
                         
@@ -0,0 +1,113 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.util.BrokerLayout;
+import com.ash.tracker_service.util.DelimitedTokenizer;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Component
+public class DelimitedHoldingsImporter implements HoldingsImporter {
+
+    private static final int SAMPLE_BYTES = 4096;
+    private static final char[] DELIMITERS = {',', '\t', ';', '|'};
+    private static final Set<String> EXTENSIONS = Set.of("csv", "tsv", "txt");
+
+    @Override
+    public String format() {
+        return "delimited";
+    }
+
+    @Override
+    public boolean supports(String filename, FileMagic magic) {
+        // Plain text has no magic of its own; anything POI recognises (PDF, images, zips) is not ours
+        return magic == FileMagic.UNKNOWN && EXTENSIONS.contains(HoldingsImporter.extension(filename));
+    }
+
+    @Override
+    public int read(Path file, String filename, Consumer<ExcelStockRowDTO> consumer) {
+        try {
+            char delimiter = detectDelimiter(file, filename);
+
+            try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+                DelimitedTokenizer tokenizer = new DelimitedTokenizer(reader, delimiter);
+
+                BrokerLayout.Columns columns = null;
+                int row = 0;
+                while (columns == null && tokenizer.next()) {
+                    row++;
+                    columns = BrokerLayout.detect(fields(tokenizer)).orElse(null);
+                }
+                if (columns == null) {
+                    throw new RuntimeException("Stock table header not found");
+                }
+
+                int count = 0;
+                while (tokenizer.next()) {
+                    row++;
+                    if (tokenizer.isBlank()) continue;
+                    ExcelStockRowDTO dto = columns.toRow(row, tokenizer::field);
+                    if (dto != null) {
+                        consumer.accept(dto);
+                        count++;
+                    }
+                }
+                return count;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse " + filename, e);
+        }
+    }
+
+    private List<String> fields(DelimitedTokenizer tokenizer) {
+        List<String> fields = new ArrayList<>(tokenizer.fieldCount());
+        for (int i = 0; i < tokenizer.fieldCount(); i++) {
+            fields.add(tokenizer.field(i));
+        }
+        return fields;
+    }
+
+    /**
+     * .tsv files are tab separated by definition; otherwise pick whichever candidate
+     * appears most often outside quotes in the first few KB.
+     */
+    private char detectDelimiter(Path file, String filename) throws IOException {
+        if (filename != null && filename.toLowerCase().endsWith(".tsv")) return '\t';
+
+        byte[] sample;
+        try (InputStream in = Files.newInputStream(file)) {
+            sample = in.readNBytes(SAMPLE_BYTES);
+        }
+
+        int[] counts = new int[DELIMITERS.length];
+        boolean quoted = false;
+        for (byte b : sample) {
+            if (b == '"') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted) continue;
+            for (int i = 0; i < DELIMITERS.length; i++) {
+                if (b == DELIMITERS[i]) counts[i]++;
+            }
+        }
+
+        int best = 0;
+        for (int i = 1; i < DELIMITERS.length; i++) {
+            if (counts[i] > counts[best]) best = i;
+        }
+        return DELIMITERS[best];
+    }
+}
@@ -0,0 +1,33 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.util.ExcelParser;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Component
+public class ExcelHoldingsImporter implements HoldingsImporter {
+
+    private static final Set<String> EXTENSIONS = Set.of("", "xls", "xlsx", "xlsm");
+
+    @Override
+    public String format() {
+        return "excel";
+    }
+
+    @Override
+    public boolean supports(String filename, FileMagic magic) {
+        // Any zip reads as OOXML, so the name has to agree
+        return (magic == FileMagic.OOXML || magic == FileMagic.OLE2)
+                && EXTENSIONS.contains(HoldingsImporter.extension(filename));
+    }
+
+    @Override
+    public int read(Path file, String filename, Consumer<ExcelStockRowDTO> consumer) {
+        return ExcelParser.parse(file, consumer);
+    }
+}
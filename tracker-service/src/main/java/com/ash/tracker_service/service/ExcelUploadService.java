@@ -1,7 +1,12 @@
 package com.ash.tracker_service.service;
 
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface ExcelUploadService {
     Object upload(String userId, String accountId, MultipartFile file, String mode);
+
+    Object upload(String userId, String accountId, List<ExcelStockRowDTO> rows, String mode);
 }
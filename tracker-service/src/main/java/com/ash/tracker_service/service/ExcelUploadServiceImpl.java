@@ -6,7 +6,6 @@ import com.ash.tracker_service.dto.SoldStockDetectionDTO;
 import com.ash.tracker_service.entity.StockHolding;
 import com.ash.tracker_service.entity.UserPortfolio;
 import com.ash.tracker_service.repository.UserPortfolioRepository;
-import com.ash.tracker_service.util.ExcelParser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,16 +19,20 @@ import java.util.stream.Collectors;
 public class ExcelUploadServiceImpl implements ExcelUploadService {
 
     private final UserPortfolioRepository userPortfolioRepository;
+    private final HoldingsImportService holdingsImportService;
 
     @Override
     public Object upload(String userId, String accountId, MultipartFile file, String mode) {
+        return upload(userId, accountId, holdingsImportService.read(file), mode);
+    }
+
+    @Override
+    public Object upload(String userId, String accountId, List<ExcelStockRowDTO> rows, String mode) {
 
         UserPortfolio portfolio = userPortfolioRepository
                 .findByUserIdAndAccountId(userId, accountId)
                 .orElseGet(() -> initPortfolio(userId, accountId));
 
-        List<ExcelStockRowDTO> rows = ExcelParser.parse(file);
-
         if (portfolio.isDemoData()) {
             portfolio.setStocks(new ArrayList<>());
             portfolio.setDemoData(false);
@@ -1,77 +1,153 @@
 package com.ash.tracker_service.service;
 
-import com.ash.tracker_service.entity.MarketPrice;
-import com.ash.tracker_service.repository.MarketPriceRepository;
-import com.ash.tracker_service.repository.MissingIsinRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ExternalPriceClientImpl implements ExternalPriceClient {
 
-    private final MarketPriceRepository marketPriceRepository;
     private final YahooMarketService yahooMarketService;
-    private final TickerSearchService tickerSearchService;
-    private final MissingIsinRepository missingIsinRepository;
+    private final IsinSymbolResolver isinSymbolResolver;
 
-    private static final long TTL_SECONDS = 600;
+    @Value("${market-price.fetch.yahoo-permits:8}")
+    private int yahooPermits;
+
+    @Value("${market-price.fetch.deadline-ms:8000}")
+    private long deadlineMs;
+
+    private ExecutorService executor;
+    private Semaphore yahooSemaphore;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        yahooSemaphore = new Semaphore(Math.max(1, yahooPermits));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
 
     @Override
     public Map<String, Double> fetchPrices(List<String> isins) {
 
-        Map<String, Double> prices = new HashMap<>();
-        List<MarketPrice> cached = marketPriceRepository.findByIsinIn(isins);
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        if (isins == null || isins.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Map<String, String> symbols = resolveSymbols(isins);
+
+        Map<String, List<String>> isinsBySymbol = new LinkedHashMap<>();
+        symbols.forEach((isin, symbol) -> isinsBySymbol.computeIfAbsent(symbol, k -> new ArrayList<>()).add(isin));
 
-        Map<String, MarketPrice> cacheMap = new HashMap<>();
-        for (MarketPrice p : cached) {
-            cacheMap.put(p.getIsin(), p);
+        List<String> symbolList = new ArrayList<>(isinsBySymbol.keySet());
+        int batchSize = yahooMarketService.getQuoteBatchSize();
+
+        // Batch tasks queue per-symbol fallback tasks here before they finish
+        Queue<Future<?>> tasks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < symbolList.size(); i += batchSize) {
+            List<String> batch = List.copyOf(symbolList.subList(i, Math.min(i + batchSize, symbolList.size())));
+            tasks.add(executor.submit(() -> fetchBatch(batch, isinsBySymbol, deadline, prices, tasks)));
         }
 
-        for (String isin : isins) {
+        Future<?> task;
+        while ((task = tasks.poll()) != null) {
+            long remaining = deadline - System.nanoTime();
             try {
-                MarketPrice cachedPrice = cacheMap.get(isin);
-
-                if (cachedPrice != null &&
-                        cachedPrice.getLastUpdated().isAfter(
-                                Instant.now().minusSeconds(TTL_SECONDS))) {
-
-                    prices.put(isin, cachedPrice.getPrice());
-                    continue;
-                }
-
-                String symbol = null;
-                
-                var missingIsin = missingIsinRepository.findByIsin(isin);
-                if (missingIsin.isPresent() && missingIsin.get().getSymbol() != null && !missingIsin.get().getSymbol().isEmpty()) {
-                    symbol = missingIsin.get().getSymbol();
-                    System.out.println("Using symbol from missing_isins: " + symbol + " for ISIN: " + isin);
-                } else {
-                    symbol = tickerSearchService.getSymbolByIsin(isin);
-                }
-                
-                double livePrice = yahooMarketService.getCurrentPrice(symbol);
-
-                prices.put(isin, livePrice);
-
-                marketPriceRepository.save(
-                        MarketPrice.builder()
-                                .isin(isin)
-                                .price(livePrice)
-                                .lastUpdated(Instant.now())
-                                .build()
-                );
-            } catch (Exception e) {
-                System.err.println(" Failed to fetch price for ISIN: " + isin + " - " + e.getMessage());
-               
+                task.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                task.cancel(true);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                log.warn("Failed to fetch price batch: {}", ex.getCause().getMessage());
+            }
+        }
+
+        if (prices.size() < symbols.size()) {
+            log.warn("Fetched {} of {} prices within the {} ms deadline", prices.size(), symbols.size(), deadlineMs);
+        }
+
+        return new HashMap<>(prices);
+    }
+
+    private void fetchBatch(List<String> symbols, Map<String, List<String>> isinsBySymbol,
+                            long deadline, Map<String, Double> prices, Queue<Future<?>> tasks) {
+        YahooMarketService.QuoteResult quotes;
+        boolean acquired = false;
+        try {
+            acquired = yahooSemaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                return;
+            }
+            quotes = yahooMarketService.getCurrentPrices(symbols);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            if (acquired) {
+                yahooSemaphore.release();
+            }
+        }
+
+        quotes.prices().forEach((symbol, price) -> putPrice(symbol, price, isinsBySymbol, prices));
+        if (!quotes.failed().isEmpty()) {
+            log.info("Falling back to chart prices for {} symbols", quotes.failed().size());
+            for (String symbol : quotes.failed()) {
+                tasks.add(executor.submit(() -> fetchChart(symbol, isinsBySymbol, deadline, prices)));
+            }
+        }
+    }
+
+    private void fetchChart(String symbol, Map<String, List<String>> isinsBySymbol,
+                            long deadline, Map<String, Double> prices) {
+        boolean acquired = false;
+        try {
+            acquired = yahooSemaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                return;
+            }
+            putPrice(symbol, yahooMarketService.getChartPrice(symbol), isinsBySymbol, prices);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Chart price failed for {}: {}", symbol, e.getMessage());
+        } finally {
+            if (acquired) {
+                yahooSemaphore.release();
+            }
+        }
+    }
+
+    private static void putPrice(String symbol, double price, Map<String, List<String>> isinsBySymbol,
+                                 Map<String, Double> prices) {
+        for (String isin : isinsBySymbol.getOrDefault(symbol, List.of())) {
+            prices.put(isin, price);
+        }
+    }
+
+    private Map<String, String> resolveSymbols(List<String> isins) {
+        Map<String, String> symbols = isinSymbolResolver.resolve(isins);
+
+        for (String isin : isins) {
+            if (isin != null && !symbols.containsKey(isin)) {
+                log.warn("Ticker not found in NSE or BSE for ISIN: {}", isin);
             }
         }
 
-        return prices;
+        return symbols;
     }
 }
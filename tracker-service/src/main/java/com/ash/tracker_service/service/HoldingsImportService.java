@@ -0,0 +1,94 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+@Service
+public class HoldingsImportService {
+
+    private final List<HoldingsImporter> importers;
+    private final Map<String, Timer> importTimers = new HashMap<>();
+    private final Map<String, DistributionSummary> importRows = new HashMap<>();
+
+    public HoldingsImportService(List<HoldingsImporter> importers, MeterRegistry meterRegistry) {
+        this.importers = importers;
+        for (HoldingsImporter importer : importers) {
+            importTimers.put(importer.format(), Timer.builder("holdings_import_duration_seconds")
+                    .description("Time taken to read an uploaded holdings file")
+                    .tag("format", importer.format())
+                    .register(meterRegistry));
+            importRows.put(importer.format(), DistributionSummary.builder("holdings_import_rows")
+                    .description("Holdings rows read from an uploaded file")
+                    .tag("format", importer.format())
+                    .register(meterRegistry));
+        }
+    }
+
+    public List<ExcelStockRowDTO> read(MultipartFile file) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("holdings-", ".upload");
+            file.transferTo(temp);
+            return read(temp, file.getOriginalFilename());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded holdings file", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    public List<ExcelStockRowDTO> read(Path file, String filename) {
+        return read(file, filename, rowsRead -> {
+        });
+    }
+
+    /**
+     * Same as {@link #read(Path, String)}, reporting the running row count to
+     * {@code progress} as rows are parsed.
+     */
+    public List<ExcelStockRowDTO> read(Path file, String filename, IntConsumer progress) {
+        FileMagic magic;
+        try {
+            magic = FileMagic.valueOf(file.toFile());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded holdings file", e);
+        }
+
+        HoldingsImporter importer = importers.stream()
+                .filter(i -> i.supports(filename, magic))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Unsupported holdings file: " + filename));
+
+        List<ExcelStockRowDTO> rows = new ArrayList<>();
+        long start = System.nanoTime();
+        importer.read(file, filename, row -> {
+            rows.add(row);
+            progress.accept(rows.size());
+        });
+
+        importTimers.get(importer.format()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        importRows.get(importer.format()).record(rows.size());
+
+        return rows;
+    }
+}
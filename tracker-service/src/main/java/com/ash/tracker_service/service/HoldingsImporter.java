@@ -0,0 +1,26 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+public interface HoldingsImporter {
+
+    String format();
+
+    boolean supports(String filename, FileMagic magic);
+
+    int read(Path file, String filename, Consumer<ExcelStockRowDTO> consumer);
+
+    /**
+     * Lower-case extension of {@code filename} without the dot, or "" if it has none.
+     */
+    static String extension(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
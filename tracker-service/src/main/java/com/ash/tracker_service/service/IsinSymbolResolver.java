@@ -0,0 +1,242 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.MissingIsin;
+import com.ash.tracker_service.entity.Ticker;
+import com.ash.tracker_service.repository.TickerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory ISIN to trading symbol map. The NSE symbol is preferred over BSE, and a
+ * symbol set on a missing_isins record overrides both. Ticker changes mark the map
+ * stale; the next lookup starts a background reload and keeps using the old map until it
+ * finishes. Override changes are applied in place. ISINs not in the map are looked up in
+ * Mongo in one query; hits are remembered, and misses are not retried until their TTL ends.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IsinSymbolResolver {
+
+    private static final List<String> SOURCES = List.of("NSE", "BSE");
+
+    private final MongoTemplate mongoTemplate;
+    private final TickerRepository tickerRepository;
+
+    private volatile Map<String, String> tickerSymbols;
+    private volatile Map<String, String> overrides;
+    private volatile boolean tickersStale;
+    private volatile boolean overridesStale;
+
+    // ISIN -> time (ms) until which a failed lookup is not repeated
+    private final Map<String, Long> notFound = new ConcurrentHashMap<>();
+
+    @Value("${isin-resolver.miss-ttl-ms:600000}")
+    private long missTtlMillis;
+
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "isin-resolver-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    // Serialises reloads; the maps themselves are swapped under this
+    private final Object reloadLock = new Object();
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadTickers();
+        reloadOverrides();
+    }
+
+    @Scheduled(fixedDelayString = "${isin-resolver.refresh-interval-ms:900000}",
+            initialDelayString = "${isin-resolver.refresh-interval-ms:900000}")
+    public void refresh() {
+        tickersStale = true;
+        overridesStale = true;
+        reloadTickers();
+        reloadOverrides();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    public Optional<String> resolve(String isin) {
+        if (isin == null) return Optional.empty();
+        return Optional.ofNullable(resolve(List.of(isin)).get(isin));
+    }
+
+    public Map<String, String> resolve(Collection<String> isins) {
+        Map<String, String> symbols = new HashMap<>();
+        if (isins == null || isins.isEmpty()) return symbols;
+
+        ensureLoaded();
+        Map<String, String> fromTickers = tickerSymbols;
+        Map<String, String> fromOverrides = overrides;
+
+        long now = System.currentTimeMillis();
+        List<String> misses = new ArrayList<>();
+        for (String isin : isins) {
+            if (isin == null || symbols.containsKey(isin)) continue;
+            String symbol = fromOverrides.get(isin);
+            if (symbol == null) symbol = fromTickers.get(isin);
+            if (symbol != null) {
+                symbols.put(isin, symbol);
+            } else if (notFound.getOrDefault(isin, 0L) <= now) {
+                misses.add(isin);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, String> found = preferred(tickerRepository.findByIsinInAndSourceIn(misses, SOURCES));
+            if (!found.isEmpty()) {
+                symbols.putAll(found);
+                remember(found);
+            }
+            for (String isin : misses) {
+                if (!found.containsKey(isin)) notFound.put(isin, now + missTtlMillis);
+            }
+        }
+        return symbols;
+    }
+
+    public void onTickerChanged() {
+        tickersStale = true;
+        notFound.clear();
+    }
+
+    public synchronized void onOverrideSaved(MissingIsin record) {
+        if (overrides == null || record.getIsin() == null) return;
+
+        Map<String, String> updated = new HashMap<>(overrides);
+        if (record.getSymbol() != null && !record.getSymbol().isEmpty()) {
+            updated.put(record.getIsin(), record.getSymbol());
+        } else {
+            updated.remove(record.getIsin());
+        }
+        overrides = Collections.unmodifiableMap(updated);
+    }
+
+    public void onOverrideDeleted() {
+        overridesStale = true;
+    }
+
+    private void ensureLoaded() {
+        // Only the very first lookup waits for a load; later reloads happen behind it
+        if (tickerSymbols == null) reloadTickers();
+        if (overrides == null) reloadOverrides();
+        if (tickersStale || overridesStale) reloadInBackground();
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) return;
+        try {
+            reloadExecutor.execute(() -> {
+                try {
+                    reloadTickers();
+                    reloadOverrides();
+                } catch (RuntimeException e) {
+                    log.warn("ISIN symbol reload failed, keeping the previous map: {}", e.getMessage());
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reloading.set(false);
+        }
+    }
+
+    private void reloadTickers() {
+        synchronized (reloadLock) {
+            if (tickerSymbols != null && !tickersStale) return;
+            tickersStale = false;
+
+            long start = System.currentTimeMillis();
+            Query query = new Query(Criteria.where("source").in(SOURCES));
+            query.fields().include("isin", "source", "symbol");
+
+            Map<String, String> symbols = new HashMap<>();
+            Set<String> nse = new HashSet<>();
+            try {
+                for (Document doc : mongoTemplate.find(query, Document.class, "tickers")) {
+                    String isin = doc.getString("isin");
+                    String symbol = doc.getString("symbol");
+                    if (isin == null || symbol == null || nse.contains(isin)) continue;
+                    symbols.put(isin, symbol);
+                    if ("NSE".equals(doc.getString("source"))) nse.add(isin);
+                }
+            } catch (RuntimeException e) {
+                tickersStale = true;
+                throw e;
+            }
+            synchronized (this) {
+                tickerSymbols = Collections.unmodifiableMap(symbols);
+            }
+            log.info("Loaded {} ISIN symbols in {}ms", symbols.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void reloadOverrides() {
+        synchronized (reloadLock) {
+            if (overrides != null && !overridesStale) return;
+            overridesStale = false;
+
+            Query query = new Query(Criteria.where("symbol").nin(null, ""));
+            query.fields().include("isin", "symbol");
+
+            Map<String, String> loaded = new HashMap<>();
+            try {
+                for (Document doc : mongoTemplate.find(query, Document.class, "missing_isins")) {
+                    String isin = doc.getString("isin");
+                    if (isin != null) loaded.put(isin, doc.getString("symbol"));
+                }
+            } catch (RuntimeException e) {
+                overridesStale = true;
+                throw e;
+            }
+            synchronized (this) {
+                overrides = Collections.unmodifiableMap(loaded);
+            }
+        }
+    }
+
+    private synchronized void remember(Map<String, String> found) {
+        Map<String, String> updated = new HashMap<>(tickerSymbols);
+        updated.putAll(found);
+        tickerSymbols = Collections.unmodifiableMap(updated);
+    }
+
+    private static Map<String, String> preferred(List<Ticker> tickers) {
+        Map<String, Ticker> best = new HashMap<>();
+        for (Ticker t : tickers) {
+            Ticker existing = best.get(t.getIsin());
+            if (existing == null || ("NSE".equals(t.getSource()) && !"NSE".equals(existing.getSource()))) {
+                best.put(t.getIsin(), t);
+            }
+        }
+        Map<String, String> symbols = new HashMap<>();
+        best.forEach((isin, ticker) -> symbols.put(isin, ticker.getSymbol()));
+        return symbols;
+    }
+}
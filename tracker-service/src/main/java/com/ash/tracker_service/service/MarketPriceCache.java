@@ -0,0 +1,172 @@
+package com.ash.tracker_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class MarketPriceCache {
+
+    private static final int STRIPES = 16;
+
+    private final Segment[] segments = new Segment[STRIPES];
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlSeconds;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter sizeEvictionCounter;
+    private final Counter expiryEvictionCounter;
+
+    public MarketPriceCache(MeterRegistry meterRegistry,
+                            @Value("${market-price.cache.max-size:5000}") int maxSize,
+                            @Value("${market-price.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+
+        this.hitCounter = Counter.builder("market_price_cache_hits_total")
+                .description("Market price lookups served from the in-memory cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("market_price_cache_misses_total")
+                .description("Market price lookups not found or expired in the in-memory cache")
+                .register(meterRegistry);
+        this.sizeEvictionCounter = Counter.builder("market_price_cache_evictions_total")
+                .description("Market prices evicted from the in-memory cache")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        this.expiryEvictionCounter = Counter.builder("market_price_cache_evictions_total")
+                .description("Market prices evicted from the in-memory cache")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        Gauge.builder("market_price_cache_size", this, MarketPriceCache::size)
+                .description("Number of market prices held in the in-memory cache")
+                .register(meterRegistry);
+
+        int perSegment = Math.max(1, (maxSize + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment(perSegment, sizeEvictionCounter);
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public boolean isFresh(Instant lastUpdated) {
+        return lastUpdated != null && lastUpdated.isAfter(Instant.now().minusSeconds(ttlSeconds));
+    }
+
+    public Double get(String isin) {
+        Segment segment = segmentFor(isin);
+        segment.lock.lock();
+        try {
+            CachedPrice cached = segment.get(isin);
+            if (cached == null) {
+                missCounter.increment();
+                return null;
+            }
+            if (!isFresh(cached.lastUpdated())) {
+                segment.remove(isin);
+                expiryEvictionCounter.increment();
+                missCounter.increment();
+                return null;
+            }
+            hitCounter.increment();
+            return cached.price();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(String isin, Double price, Instant lastUpdated) {
+        if (isin == null || price == null || !isFresh(lastUpdated)) return;
+
+        Segment segment = segmentFor(isin);
+        segment.lock.lock();
+        try {
+            CachedPrice existing = segment.get(isin);
+            if (existing == null || !existing.lastUpdated().isAfter(lastUpdated)) {
+                segment.put(isin, new CachedPrice(price, lastUpdated));
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(String isin) {
+        Segment segment = segmentFor(isin);
+        segment.lock.lock();
+        try {
+            segment.remove(isin);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                total += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Registers the caller as the refresher for an ISIN. Returns null when the caller
+     * now owns the refresh, otherwise the pending result of the refresh already in flight.
+     */
+    public CompletableFuture<Double> claimRefresh(String isin, CompletableFuture<Double> refresh) {
+        return inFlight.putIfAbsent(isin, refresh);
+    }
+
+    public void completeRefresh(String isin, Double price) {
+        CompletableFuture<Double> refresh = inFlight.remove(isin);
+        if (refresh != null) {
+            refresh.complete(price);
+        }
+    }
+
+    private Segment segmentFor(String isin) {
+        int h = isin.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (STRIPES - 1)];
+    }
+
+    private record CachedPrice(double price, Instant lastUpdated) {
+    }
+
+    private static final class Segment extends LinkedHashMap<String, CachedPrice> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final Counter evictions;
+
+        Segment(int capacity, Counter evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPrice> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
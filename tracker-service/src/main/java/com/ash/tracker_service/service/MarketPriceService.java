@@ -3,54 +3,122 @@ package com.ash.tracker_service.service;
 import com.ash.tracker_service.entity.MarketPrice;
 import com.ash.tracker_service.repository.MarketPriceRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MarketPriceService {
 
     private final MarketPriceRepository marketPriceRepository;
     private final ExternalPriceClient externalPriceClient;
+    private final MarketPriceCache priceCache;
+    private final MarketPriceWriter marketPriceWriter;
+    private final PortfolioSnapshotService snapshotService;
 
-    private static final long TTL = 300;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
 
     public Map<String, Double> getLatestPrices(List<String> isins) {
 
         Map<String, Double> result = new HashMap<>();
+        Map<String, CompletableFuture<Double>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Double>> pending = new HashMap<>();
 
-        List<MarketPrice> cached = marketPriceRepository.findByIsinIn(isins);
-        Map<String, MarketPrice> cacheMap = cached.stream()
-                .collect(Collectors.toMap(MarketPrice::getIsin, p -> p));
+        for (String isin : new LinkedHashSet<>(isins)) {
+            if (isin == null) continue;
 
+            Double price = priceCache.get(isin);
+            if (price != null) {
+                result.put(isin, price);
+                continue;
+            }
+
+            CompletableFuture<Double> refresh = new CompletableFuture<>();
+            CompletableFuture<Double> existing = priceCache.claimRefresh(isin, refresh);
+            if (existing == null) {
+                owned.put(isin, refresh);
+            } else {
+                pending.put(isin, existing);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            Map<String, Double> refreshed = Collections.emptyMap();
+            try {
+                refreshed = refresh(new ArrayList<>(owned.keySet()));
+                result.putAll(refreshed);
+            } finally {
+                for (String isin : owned.keySet()) {
+                    priceCache.completeRefresh(isin, refreshed.get(isin));
+                }
+            }
+        }
+
+        for (var e : pending.entrySet()) {
+            try {
+                Double price = e.getValue().get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+                if (price != null) {
+                    result.put(e.getKey(), price);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                log.warn("Waiting for in-flight price refresh of {} failed: {}", e.getKey(), ex.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    private Map<String, Double> refresh(List<String> isins) {
+
+        Map<String, Double> result = new HashMap<>();
         List<String> fetch = new ArrayList<>();
 
+        Map<String, MarketPrice> stored = new HashMap<>();
+        for (MarketPrice p : marketPriceRepository.findByIsinIn(isins)) {
+            stored.put(p.getIsin(), p);
+        }
+
         for (String isin : isins) {
-            MarketPrice p = cacheMap.get(isin);
-            if (p == null || p.getLastUpdated().isBefore(Instant.now().minusSeconds(TTL))) {
+            MarketPrice p = stored.get(isin);
+            if (p == null || p.getPrice() == null || !priceCache.isFresh(p.getLastUpdated())) {
                 fetch.add(isin);
             } else {
                 result.put(isin, p.getPrice());
+                priceCache.put(isin, p.getPrice(), p.getLastUpdated());
             }
         }
 
         if (!fetch.isEmpty()) {
-            Map<String, Double> fetched = externalPriceClient.fetchPrices(fetch);
-            for (var e : fetched.entrySet()) {
-                result.put(e.getKey(), e.getValue());
-                marketPriceRepository.save(
-                        MarketPrice.builder()
-                                .isin(e.getKey())
-                                .price(e.getValue())
-                                .lastUpdated(Instant.now())
-                                .build()
-                );
-            }
+            result.putAll(fetchAndStore(fetch));
         }
 
         return result;
     }
+
+    public Map<String, Double> refreshPrices(List<String> isins) {
+        if (isins == null || isins.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return fetchAndStore(isins);
+    }
+
+    private Map<String, Double> fetchAndStore(List<String> isins) {
+        Map<String, Double> fetched = externalPriceClient.fetchPrices(isins);
+        Instant now = Instant.now();
+        for (var e : fetched.entrySet()) {
+            priceCache.put(e.getKey(), e.getValue(), now);
+        }
+        marketPriceWriter.enqueueAll(fetched, now);
+        snapshotService.onPricesChanged(fetched);
+        return fetched;
+    }
 }
@@ -0,0 +1,116 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.MarketPrice;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class MarketPriceWriter {
+
+    private final MongoTemplate mongoTemplate;
+    private final int flushThreshold;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    private final Map<String, MarketPrice> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public MarketPriceWriter(MongoTemplate mongoTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${market-price.writer.flush-threshold:500}") int flushThreshold) {
+        this.mongoTemplate = mongoTemplate;
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.flushTimer = Timer.builder("market_price_flush_duration_seconds")
+                .description("Time taken to bulk upsert pending market prices")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("market_price_flush_batch_size")
+                .description("Number of market prices written per bulk upsert")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(String isin, Double price, Instant lastUpdated) {
+        if (isin == null || price == null || lastUpdated == null) return;
+
+        MarketPrice update = MarketPrice.builder()
+                .isin(isin)
+                .price(price)
+                .lastUpdated(lastUpdated)
+                .build();
+        pending.merge(isin, update, (existing, incoming) ->
+                incoming.getLastUpdated().isBefore(existing.getLastUpdated()) ? existing : incoming);
+
+        if (pending.size() >= flushThreshold) {
+            flush();
+        }
+    }
+
+    public void enqueueAll(Map<String, Double> prices, Instant lastUpdated) {
+        prices.forEach((isin, price) -> enqueue(isin, price, lastUpdated));
+    }
+
+    @Scheduled(fixedDelayString = "${market-price.writer.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) return;
+
+        try {
+            List<MarketPrice> batch = new ArrayList<>(pending.size());
+            for (String isin : new ArrayList<>(pending.keySet())) {
+                MarketPrice price = pending.remove(isin);
+                if (price != null) {
+                    batch.add(price);
+                }
+            }
+            if (batch.isEmpty()) return;
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MarketPrice.class);
+            for (MarketPrice price : batch) {
+                ops.upsert(
+                        new Query(Criteria.where("_id").is(price.getIsin())),
+                        new Update()
+                                .set("price", price.getPrice())
+                                .set("lastUpdated", price.getLastUpdated())
+                );
+            }
+
+            Timer.Sample sample = Timer.start();
+            try {
+                ops.execute();
+            } catch (Exception e) {
+                log.error("Bulk upsert of {} market prices failed: {}", batch.size(), e.getMessage());
+                for (MarketPrice price : batch) {
+                    pending.putIfAbsent(price.getIsin(), price);
+                }
+                return;
+            } finally {
+                sample.stop(flushTimer);
+            }
+            batchSizeSummary.record(batch.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,270 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.StockHolding;
+import com.ash.tracker_service.entity.UserPortfolio;
+import com.ash.tracker_service.util.KeyRing;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Applies single-holding changes to a portfolio with targeted updates on the
+ * {@code stocks} array instead of re-saving the whole document. Holdings are read raw, so
+ * only the ISINs are decrypted to locate them and only new holdings are encrypted.
+ * Every write is guarded by the portfolio version and retried on conflict.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PortfolioHoldingWriter {
+
+    private static final String COLLECTION = "user_portfolios";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final PortfolioValuationCoalescer valuationCoalescer;
+    private final PortfolioSnapshotService snapshotService;
+    private final KeyRing keyRing;
+
+    @Value("${app.encryption.blind-index:false}")
+    private boolean blindIndex;
+
+    @FunctionalInterface
+    public interface Mutation<T> {
+        T apply(Holdings holdings);
+    }
+
+    @PostConstruct
+    public void backfillVersions() {
+        UpdateResult result = mongoTemplate.updateMulti(
+                new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                COLLECTION);
+        if (result.getModifiedCount() > 0) {
+            log.info("Initialised version on {} portfolios", result.getModifiedCount());
+        }
+    }
+
+    /**
+     * Runs {@code mutation} against the current holdings and writes the result. The
+     * mutation may be invoked more than once if another write lands first, so it must
+     * not have side effects; act on its return value instead.
+     */
+    public <T> T update(String userId, String accountId, Mutation<T> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            Document raw = mongoTemplate.findOne(
+                    new Query(Criteria.where("userId").is(userId).and("accountId").is(accountId)),
+                    Document.class, COLLECTION);
+            if (raw == null) {
+                throw new NoSuchElementException("Portfolio not found for account: " + accountId);
+            }
+
+            Holdings holdings = new Holdings(raw.getList("stocks", Document.class), keyRing, blindIndex);
+            T result = mutation.apply(holdings);
+            if (!holdings.isChanged()) {
+                return result;
+            }
+
+            if (write(raw, holdings)) {
+                UserPortfolio portfolio = UserPortfolio.builder()
+                        .id(raw.get("_id").toString())
+                        .userId(userId)
+                        .accountId(accountId)
+                        .stocks(holdings.result())
+                        .build();
+                snapshotService.onPortfolioSaved(portfolio);
+                valuationCoalescer.invalidate(userId);
+                return result;
+            }
+
+            if (attempt == MAX_ATTEMPTS) {
+                throw new OptimisticLockingFailureException(
+                        "Portfolio " + raw.get("_id") + " was modified concurrently, giving up after " + attempt + " attempts");
+            }
+        }
+    }
+
+    private boolean write(Document raw, Holdings holdings) {
+        Update update = new Update();
+
+        // Mongo rejects $set on stocks.N together with $push/$pull on stocks in one
+        // update, so a mixed change rewrites the array from the raw (still encrypted) docs.
+        if (holdings.removed.isEmpty() && holdings.added.isEmpty()) {
+            for (int i : holdings.updated) {
+                Document doc = holdings.docs.get(i);
+                for (String field : List.of("quantity", "averageBuyPrice", "buyValue", "lastUpdated")) {
+                    update.set("stocks." + i + "." + field, doc.get(field));
+                }
+            }
+        } else if (holdings.updated.isEmpty() && holdings.removed.isEmpty()) {
+            update.push("stocks").each(holdings.encryptedAdditions().toArray());
+        } else if (holdings.updated.isEmpty() && holdings.added.isEmpty()) {
+            List<Object> isins = new ArrayList<>();
+            for (int i : holdings.removed) {
+                isins.add(holdings.docs.get(i).get("isin"));
+            }
+            update.pull("stocks", new Document("isin", new Document("$in", isins)));
+        } else {
+            update.set("stocks", holdings.resultDocs());
+        }
+
+        update.set("totalInvestment", holdings.totalInvestment())
+                .set("updatedAt", Instant.now())
+                .inc("version", 1);
+
+        Object version = raw.get("version");
+        Criteria criteria = Criteria.where("_id").is(raw.get("_id"));
+        criteria = version != null ? criteria.and("version").is(version) : criteria.and("version").exists(false);
+
+        return mongoTemplate.updateFirst(new Query(criteria), update, COLLECTION).getMatchedCount() == 1;
+    }
+
+    public static final class Holdings {
+
+        private final List<Document> docs;
+        private final List<String> isins;
+        private final KeyRing keyRing;
+        private final boolean blindIndex;
+
+        private final SortedSet<Integer> updated = new TreeSet<>();
+        private final SortedSet<Integer> removed = new TreeSet<>();
+        private final List<StockHolding> added = new ArrayList<>();
+
+        private Holdings(List<Document> docs, KeyRing keyRing, boolean blindIndex) {
+            this.docs = docs != null ? docs : new ArrayList<>();
+            this.keyRing = keyRing;
+            this.blindIndex = blindIndex;
+            this.isins = new ArrayList<>(this.docs.size());
+            for (Document doc : this.docs) {
+                isins.add(keyRing.decrypt(doc.getString("isin")));
+            }
+        }
+
+        public StockHolding find(String isin) {
+            int i = indexOf(isin);
+            if (i >= 0) return holding(i);
+            return added.stream().filter(h -> isin.equals(h.getIsin())).findFirst().orElse(null);
+        }
+
+        /**
+         * Records new quantity, price and buy value for a holding returned by {@link #find}.
+         */
+        public void update(StockHolding holding) {
+            int i = indexOf(holding.getIsin());
+            if (i < 0) return;
+
+            Document doc = docs.get(i);
+            doc.put("quantity", holding.getQuantity());
+            doc.put("averageBuyPrice", holding.getAverageBuyPrice());
+            doc.put("buyValue", holding.getBuyValue());
+            doc.put("lastUpdated", holding.getLastUpdated() != null ? Date.from(holding.getLastUpdated()) : null);
+            updated.add(i);
+        }
+
+        public void add(StockHolding holding) {
+            added.add(holding);
+        }
+
+        public void remove(String isin) {
+            int i = indexOf(isin);
+            if (i >= 0) {
+                removed.add(i);
+                updated.remove(i);
+            } else {
+                added.removeIf(h -> isin.equals(h.getIsin()));
+            }
+        }
+
+        private boolean isChanged() {
+            return !updated.isEmpty() || !removed.isEmpty() || !added.isEmpty();
+        }
+
+        private int indexOf(String isin) {
+            for (int i = 0; i < isins.size(); i++) {
+                if (!removed.contains(i) && Objects.equals(isins.get(i), isin)) return i;
+            }
+            return -1;
+        }
+
+        private List<Document> encryptedAdditions() {
+            List<Document> result = new ArrayList<>(added.size());
+            for (StockHolding h : added) {
+                Document doc = new Document()
+                        .append("stockName", keyRing.encrypt(h.getStockName()))
+                        .append("isin", keyRing.encrypt(h.getIsin()));
+                if (blindIndex) {
+                    doc.append("isinHash", keyRing.blindIndex(h.getIsin()));
+                }
+                result.add(doc
+                        .append("quantity", h.getQuantity())
+                        .append("averageBuyPrice", h.getAverageBuyPrice())
+                        .append("buyValue", h.getBuyValue())
+                        .append("lastUpdated", h.getLastUpdated() != null ? Date.from(h.getLastUpdated()) : null));
+            }
+            return result;
+        }
+
+        private List<Document> resultDocs() {
+            List<Document> result = new ArrayList<>();
+            for (int i = 0; i < docs.size(); i++) {
+                if (!removed.contains(i)) result.add(docs.get(i));
+            }
+            result.addAll(encryptedAdditions());
+            return result;
+        }
+
+        private List<StockHolding> result() {
+            List<StockHolding> result = new ArrayList<>();
+            for (int i = 0; i < docs.size(); i++) {
+                if (!removed.contains(i)) result.add(holding(i));
+            }
+            result.addAll(added);
+            return result;
+        }
+
+        private StockHolding holding(int i) {
+            Document doc = docs.get(i);
+            Number quantity = number(doc, "quantity");
+            Number avg = number(doc, "averageBuyPrice");
+            Number buyValue = number(doc, "buyValue");
+            Date lastUpdated = doc.getDate("lastUpdated");
+            return StockHolding.builder()
+                    .stockName(keyRing.decrypt(doc.getString("stockName")))
+                    .isin(isins.get(i))
+                    .quantity(quantity != null ? quantity.intValue() : null)
+                    .averageBuyPrice(avg != null ? avg.doubleValue() : null)
+                    .buyValue(buyValue != null ? buyValue.doubleValue() : null)
+                    .lastUpdated(lastUpdated != null ? lastUpdated.toInstant() : null)
+                    .build();
+        }
+
+        private double totalInvestment() {
+            double total = 0;
+            for (int i = 0; i < docs.size(); i++) {
+                if (removed.contains(i)) continue;
+                Number buyValue = number(docs.get(i), "buyValue");
+                if (buyValue != null) total += buyValue.doubleValue();
+            }
+            for (StockHolding h : added) {
+                if (h.getBuyValue() != null) total += h.getBuyValue();
+            }
+            return total;
+        }
+
+        private static Number number(Document doc, String field) {
+            return doc.get(field, Number.class);
+        }
+    }
+}
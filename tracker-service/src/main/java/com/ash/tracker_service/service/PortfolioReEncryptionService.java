@@ -0,0 +1,277 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.util.KeyRing;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Re-encrypts holdings under the active key. Portfolios are streamed in {@code _id}
+ * order, re-encrypted in parallel a batch at a time and written back with one unordered
+ * bulk update per batch, each guarded by the portfolio version so a concurrent user
+ * write wins and the document is picked up again on the next run. Progress is
+ * checkpointed after every batch, so a stopped or failed run resumes where it left off.
+ * With the blind index enabled the same pass also seeds {@code isinHash} on holdings
+ * that were saved before it was turned on.
+ */
+@Slf4j
+@Service
+public class PortfolioReEncryptionService {
+
+    public enum JobStatus { IDLE, RUNNING, DONE, STOPPED, FAILED }
+
+    public static class JobResult {
+        public volatile JobStatus status = JobStatus.IDLE;
+        public volatile String message = "";
+        public volatile Map<String, Long> counts = Collections.emptyMap();
+        public volatile Instant startedAt;
+        public volatile Instant finishedAt;
+    }
+
+    private static final String COLLECTION = "user_portfolios";
+    private static final String CHECKPOINTS = "job_checkpoints";
+    private static final String CHECKPOINT_ID = "portfolio-reencryption";
+
+    private final MongoTemplate mongoTemplate;
+    private final KeyRing keyRing;
+    private final int batchSize;
+    private final int parallelism;
+    private final long batchPauseMs;
+    private final boolean blindIndex;
+
+    private final Counter updatedCounter;
+    private final Counter unchangedCounter;
+    private final Counter conflictCounter;
+    private final Timer batchTimer;
+
+    private final JobResult currentJob = new JobResult();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+
+    public PortfolioReEncryptionService(MongoTemplate mongoTemplate,
+                                        KeyRing keyRing,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.encryption.reencrypt.batch-size:500}") int batchSize,
+                                        @Value("${app.encryption.reencrypt.parallelism:2}") int parallelism,
+                                        @Value("${app.encryption.reencrypt.batch-pause-ms:100}") long batchPauseMs,
+                                        @Value("${app.encryption.blind-index:false}") boolean blindIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.keyRing = keyRing;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.batchPauseMs = batchPauseMs;
+        this.blindIndex = blindIndex;
+
+        this.updatedCounter = documents(meterRegistry, "updated");
+        this.unchangedCounter = documents(meterRegistry, "unchanged");
+        this.conflictCounter = documents(meterRegistry, "conflict");
+        this.batchTimer = Timer.builder("portfolio_reencrypt_batch_duration_seconds")
+                .description("Time to re-encrypt and write one batch of portfolios")
+                .register(meterRegistry);
+    }
+
+    private static Counter documents(MeterRegistry registry, String result) {
+        return Counter.builder("portfolio_reencrypt_documents_total")
+                .description("Portfolios visited by the re-encryption job")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Rewrite(Object id, Object version, List<Document> stocks) {
+    }
+
+    public JobResult getJobStatus() {
+        return currentJob;
+    }
+
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Runs the job, resuming from the last checkpoint for the active key unless
+     * {@code restart} is set.
+     */
+    @Async
+    public void reEncryptAsync(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Re-encryption already running, skipping duplicate request");
+            return;
+        }
+        stopRequested = false;
+        currentJob.status = JobStatus.RUNNING;
+        currentJob.startedAt = Instant.now();
+        currentJob.finishedAt = null;
+        currentJob.counts = Collections.emptyMap();
+
+        String keyId = keyRing.getActiveKeyId();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Document checkpoint = restart ? null : loadCheckpoint(keyId);
+            Object resumeAfter = checkpoint != null ? checkpoint.get("lastId") : null;
+            long processed = checkpoint != null ? checkpoint.get("processed", Number.class).longValue() : 0;
+            long updated = 0, conflicts = 0;
+
+            currentJob.message = resumeAfter != null
+                    ? "Resuming after " + resumeAfter + " (" + processed + " already processed)"
+                    : "Re-encrypting portfolios under key " + (keyId != null ? keyId : "legacy");
+
+            Query query = new Query();
+            if (resumeAfter != null) {
+                query.addCriteria(Criteria.where("_id").gt(resumeAfter));
+            }
+            query.with(Sort.by(Sort.Direction.ASC, "_id"));
+            query.fields().include("_id", "version", "stocks");
+            query.cursorBatchSize(batchSize);
+
+            try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+                Iterator<Document> cursor = stream.iterator();
+                List<Document> batch = new ArrayList<>(batchSize);
+                while (cursor.hasNext() && !stopRequested) {
+                    batch.add(cursor.next());
+                    if (batch.size() < batchSize && cursor.hasNext()) continue;
+
+                    long[] result = processBatch(batch, pool);
+                    processed += batch.size();
+                    updated += result[0];
+                    conflicts += result[1];
+                    saveCheckpoint(keyId, batch.get(batch.size() - 1).get("_id"), processed, false);
+
+                    currentJob.counts = Map.of("processed", processed, "updated", updated, "conflicts", conflicts);
+                    currentJob.message = "Processed " + processed + " portfolios";
+                    batch.clear();
+
+                    if (batchPauseMs > 0 && cursor.hasNext()) {
+                        Thread.sleep(batchPauseMs);
+                    }
+                }
+            }
+
+            if (stopRequested) {
+                currentJob.status = JobStatus.STOPPED;
+                currentJob.message = "Stopped after " + processed + " portfolios, will resume from checkpoint";
+            } else {
+                saveCheckpoint(keyId, null, processed, true);
+                currentJob.status = JobStatus.DONE;
+                currentJob.message = String.format("Done! %d processed, %d re-encrypted, %d skipped on conflict",
+                        processed, updated, conflicts);
+            }
+            log.info("Re-encryption {}: {}", currentJob.status, currentJob.message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            currentJob.status = JobStatus.STOPPED;
+            currentJob.message = "Interrupted, will resume from checkpoint";
+        } catch (Exception e) {
+            log.error("Re-encryption failed: {}", e.getMessage(), e);
+            currentJob.status = JobStatus.FAILED;
+            currentJob.message = "Error: " + e.getMessage();
+        } finally {
+            pool.shutdown();
+            currentJob.finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns {updated, conflicts} for one batch.
+     */
+    private long[] processBatch(List<Document> batch, ForkJoinPool pool) throws Exception {
+        long start = System.nanoTime();
+        try {
+            List<Rewrite> rewrites = pool.submit(() -> batch.parallelStream()
+                    .map(this::reEncrypt)
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+
+            unchangedCounter.increment(batch.size() - rewrites.size());
+            if (rewrites.isEmpty()) {
+                return new long[]{0, 0};
+            }
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Rewrite rewrite : rewrites) {
+                Criteria criteria = Criteria.where("_id").is(rewrite.id());
+                criteria = rewrite.version() != null
+                        ? criteria.and("version").is(rewrite.version())
+                        : criteria.and("version").exists(false);
+                ops.updateOne(new Query(criteria), new Update().set("stocks", rewrite.stocks()).inc("version", 1));
+            }
+            BulkWriteResult result = ops.execute();
+
+            long updated = result.getModifiedCount();
+            long conflicts = rewrites.size() - result.getMatchedCount();
+            updatedCounter.increment(updated);
+            conflictCounter.increment(conflicts);
+            return new long[]{updated, conflicts};
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Rewrite reEncrypt(Document portfolio) {
+        List<Document> stocks = portfolio.getList("stocks", Document.class);
+        if (stocks == null || stocks.isEmpty()) return null;
+
+        boolean changed = false;
+        List<Document> result = new ArrayList<>(stocks.size());
+        for (Document stock : stocks) {
+            Document copy = new Document(stock);
+            String isin = stock.getString("isin");
+            if (blindIndex && isin != null && copy.get("isinHash") == null) {
+                copy.put("isinHash", keyRing.blindIndex(keyRing.decrypt(isin)));
+                changed = true;
+            }
+            changed |= rotate(copy, "stockName");
+            changed |= rotate(copy, "isin");
+            result.add(copy);
+        }
+        return changed ? new Rewrite(portfolio.get("_id"), portfolio.get("version"), result) : null;
+    }
+
+    private boolean rotate(Document stock, String field) {
+        String value = stock.getString(field);
+        if (value == null || value.isEmpty() || keyRing.isCurrent(value)) return false;
+        stock.put(field, keyRing.encrypt(keyRing.decrypt(value)));
+        return true;
+    }
+
+    private Document loadCheckpoint(String keyId) {
+        Document checkpoint = mongoTemplate.findById(CHECKPOINT_ID, Document.class, CHECKPOINTS);
+        if (checkpoint == null || checkpoint.getBoolean("completed", false)
+                || !Objects.equals(checkpoint.getString("keyId"), keyId)) {
+            return null;
+        }
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(String keyId, Object lastId, long processed, boolean completed) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                new Update()
+                        .set("keyId", keyId)
+                        .set("lastId", lastId)
+                        .set("processed", processed)
+                        .set("completed", completed)
+                        .set("updatedAt", Instant.now()),
+                CHECKPOINTS);
+    }
+}
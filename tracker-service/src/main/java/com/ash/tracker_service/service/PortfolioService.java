@@ -2,6 +2,7 @@ package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.dto.ConfirmSoldStocksRequestDTO;
 import com.ash.tracker_service.dto.PortfolioResponseDTO;
+import com.ash.tracker_service.dto.SoldStockPageDTO;
 
 public interface PortfolioService {
     PortfolioResponseDTO getPortfolio(String userId, String accountId);
@@ -11,4 +12,6 @@ public interface PortfolioService {
     void initPortfolio(String userId, String accountId);
     
     void confirmSoldStocks(ConfirmSoldStocksRequestDTO request);
+
+    SoldStockPageDTO getSoldStocks(String userId, String accountId, String cursor, int limit);
 }
@@ -5,6 +5,8 @@ import com.ash.tracker_service.entity.*;
 import com.ash.tracker_service.repository.SoldStockRepository;
 import com.ash.tracker_service.repository.UserPortfolioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -19,27 +21,35 @@ public class PortfolioServiceImpl implements PortfolioService {
     private final SoldStockRepository soldStockRepository;
     private final MarketPriceService marketPriceService;
     private final MissingIsinService missingIsinService;
+    private final PortfolioValuationCoalescer valuationCoalescer;
+
+    private static final int EMBEDDED_SOLD_STOCKS = 20;
+    private static final int MAX_SOLD_STOCKS_PAGE = 100;
 
     @Override
     public PortfolioResponseDTO getPortfolio(String userId, String accountId) {
-        UserPortfolio portfolio = userPortfolioRepository
-                .findByUserIdAndAccountId(userId, accountId)
-                .orElseThrow(() -> new RuntimeException("Portfolio not found for account: " + accountId));
+        return valuationCoalescer.portfolio(userId, accountId, () -> {
+            UserPortfolio portfolio = userPortfolioRepository
+                    .findByUserIdAndAccountId(userId, accountId)
+                    .orElseThrow(() -> new RuntimeException("Portfolio not found for account: " + accountId));
 
-        return convertToResponseDTO(portfolio);
+            return convertToResponseDTO(portfolio);
+        });
     }
 
     @Override
     public List<PortfolioResponseDTO> getAllPortfolios(String userId) {
-        List<UserPortfolio> portfolios = userPortfolioRepository.findByUserId(userId)
-                .orElse(Collections.emptyList());
-
-        return portfolios.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return valuationCoalescer.allPortfolios(userId, () -> {
+            List<UserPortfolio> portfolios = userPortfolioRepository.findByUserId(userId)
+                    .orElse(Collections.emptyList());
+
+            return portfolios.stream()
+                    .map(this::convertToResponseDTO)
+                    .collect(Collectors.toList());
+        });
     }
 
-    private PortfolioResponseDTO convertToResponseDTO(UserPortfolio portfolio) {
+    PortfolioResponseDTO convertToResponseDTO(UserPortfolio portfolio) {
         String userId = portfolio.getUserId();
         String accountId = portfolio.getAccountId();
 
@@ -91,26 +101,10 @@ public class PortfolioServiceImpl implements PortfolioService {
 
         stockResponses.sort(Comparator.comparing(StockHoldingResponseDTO::getStockName));
 
-        List<SoldStock> soldStocks = soldStockRepository
-                .findByUserIdAndAccountId(userId, accountId);
+        Double realised = soldStockRepository.sumRealisedPLByUserIdAndAccountId(userId, accountId);
+        double totalRealisedPL = realised != null ? realised : 0;
 
-        double totalRealisedPL = soldStocks.stream()
-                .mapToDouble(SoldStock::getRealisedPL)
-                .sum();
-
-        List<SoldStockResponseDTO> soldResponses = soldStocks.stream()
-                .map(s -> SoldStockResponseDTO.builder()
-                        .stockName(s.getStockName())
-                        .isin(s.getIsin())
-                        .quantitySold(s.getQuantitySold())
-                        .averageBuyPrice(s.getAverageBuyPrice())
-                        .sellPrice(s.getSellPrice())
-                        .investedValue(s.getInvestedValue())
-                        .soldValue(s.getSoldValue())
-                        .realisedPL(s.getRealisedPL())
-                        .soldAt(s.getSoldAt())
-                        .build())
-                .toList();
+        SoldStockPageDTO recentSold = getSoldStocks(userId, accountId, null, EMBEDDED_SOLD_STOCKS);
 
         return PortfolioResponseDTO.builder()
                 .userId(userId)
@@ -118,7 +112,8 @@ public class PortfolioServiceImpl implements PortfolioService {
                 .accountName(portfolio.getAccountName())
                 .isDemoData(portfolio.isDemoData())
                 .stocks(stockResponses)
-                .soldStocks(soldResponses)
+                .soldStocks(recentSold.getItems())
+                .soldStocksNextCursor(recentSold.getNextCursor())
                 .totalInvestment(portfolio.getTotalInvestment())
                 .totalCurrentValue(totalCurrentValue)
                 .totalUnrealisedPL(totalUnrealisedPL)
@@ -131,10 +126,7 @@ public class PortfolioServiceImpl implements PortfolioService {
     public void initPortfolio(String userId, String accountId) {
         
         
-        Optional<UserPortfolio> existing = userPortfolioRepository
-                .findByUserIdAndAccountId(userId, accountId);
-        
-        if (existing.isPresent()) {
+        if (userPortfolioRepository.existsByUserIdAndAccountId(userId, accountId)) {
             System.out.println("WARNING: Portfolio already exists for account: " + accountId);
             return;
         }
@@ -181,4 +173,38 @@ public class PortfolioServiceImpl implements PortfolioService {
         soldStockRepository.saveAll(soldStocks);
         System.out.println("Confirmed " + soldStocks.size() + " sold stocks for account: " + request.getAccountId());
     }
+
+    @Override
+    public SoldStockPageDTO getSoldStocks(String userId, String accountId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SOLD_STOCKS_PAGE));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<SoldStock> soldStocks = cursor == null || cursor.isBlank()
+                ? soldStockRepository.findByUserIdAndAccountIdOrderByIdDesc(userId, accountId, page)
+                : soldStockRepository.findByUserIdAndAccountIdAndIdLessThanOrderByIdDesc(userId, accountId, cursor, page);
+
+        boolean hasMore = soldStocks.size() > pageSize;
+        if (hasMore) {
+            soldStocks = soldStocks.subList(0, pageSize);
+        }
+
+        List<SoldStockResponseDTO> items = soldStocks.stream()
+                .map(s -> SoldStockResponseDTO.builder()
+                        .stockName(s.getStockName())
+                        .isin(s.getIsin())
+                        .quantitySold(s.getQuantitySold())
+                        .averageBuyPrice(s.getAverageBuyPrice())
+                        .sellPrice(s.getSellPrice())
+                        .investedValue(s.getInvestedValue())
+                        .soldValue(s.getSoldValue())
+                        .realisedPL(s.getRealisedPL())
+                        .soldAt(s.getSoldAt())
+                        .build())
+                .toList();
+
+        return SoldStockPageDTO.builder()
+                .items(items)
+                .nextCursor(hasMore ? soldStocks.get(soldStocks.size() - 1).getId() : null)
+                .build();
+    }
 }
@@ -0,0 +1,283 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.MarketPrice;
+import com.ash.tracker_service.entity.StockHolding;
+import com.ash.tracker_service.entity.UserPortfolio;
+import com.ash.tracker_service.repository.MarketPriceRepository;
+import com.ash.tracker_service.repository.PortfolioMetadata;
+import com.ash.tracker_service.repository.UserPortfolioRepository;
+import com.ash.tracker_service.util.EncryptionUtil;
+import com.ash.tracker_service.util.KeyRing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PortfolioSnapshotService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MarketPriceRepository marketPriceRepository;
+    private final UserPortfolioRepository userPortfolioRepository;
+    private final KeyRing keyRing;
+
+    private final Map<String, PortfolioState> portfolios = new HashMap<>();
+    private final Map<String, Set<String>> portfoliosByIsin = new HashMap<>();
+    private final Map<String, Double> lastPrices = new HashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    public record ValuationTotals(double totalInvestment, double totalCurrentValue, List<UnpricedHolding> unpriced) {
+    }
+
+    /**
+     * A holding valued at its buy price because no market price was known when it was indexed.
+     */
+    public record UnpricedHolding(String isin, String stockName, int quantity, double averageBuyPrice) {
+    }
+
+    private record Holding(String stockName, int quantity, double averageBuyPrice) {
+    }
+
+    private static final class PortfolioState {
+        private final Map<String, Holding> holdings;
+        private double investment;
+        private double currentValue;
+
+        PortfolioState(Map<String, Holding> holdings) {
+            this.holdings = holdings;
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        try {
+            Query query = new Query();
+            query.fields().include("stocks.isin", "stocks.stockName", "stocks.quantity", "stocks.averageBuyPrice");
+
+            Map<String, PortfolioState> loaded = new HashMap<>();
+            for (Document doc : mongoTemplate.find(query, Document.class, "user_portfolios")) {
+                Map<String, Holding> holdings = new HashMap<>();
+                List<Document> stocks = doc.getList("stocks", Document.class);
+                if (stocks != null) {
+                    for (Document stock : stocks) {
+                        String isin = stock.getString("isin");
+                        if (EncryptionUtil.isEncrypted(isin)) {
+                            isin = keyRing.decrypt(isin);
+                        }
+                        String stockName = stock.getString("stockName");
+                        if (EncryptionUtil.isEncrypted(stockName)) {
+                            stockName = keyRing.decrypt(stockName);
+                        }
+                        Number quantity = stock.get("quantity", Number.class);
+                        Number avg = stock.get("averageBuyPrice", Number.class);
+                        if (isin != null && quantity != null && avg != null) {
+                            holdings.merge(isin, new Holding(stockName, quantity.intValue(), avg.doubleValue()), this::mergeHoldings);
+                        }
+                    }
+                }
+                loaded.put(doc.get("_id").toString(), new PortfolioState(holdings));
+            }
+
+            Set<String> isins = new HashSet<>();
+            loaded.values().forEach(state -> isins.addAll(state.holdings.keySet()));
+            Map<String, Double> stored = storedPrices(isins);
+
+            synchronized (this) {
+                stored.forEach(lastPrices::putIfAbsent);
+                loaded.forEach(this::index);
+                ready = true;
+            }
+            log.info("Valuation snapshot index built for {} portfolios / {} ISINs in {} ms",
+                    loaded.size(), portfoliosByIsin.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build valuation snapshot index: {}", e.getMessage(), e);
+        }
+    }
+
+    public void onPortfolioSaved(UserPortfolio portfolio) {
+        if (!ready || portfolio.getId() == null) return;
+
+        Map<String, Holding> holdings = new HashMap<>();
+        if (portfolio.getStocks() != null) {
+            for (StockHolding s : portfolio.getStocks()) {
+                if (s.getIsin() != null && s.getQuantity() != null && s.getAverageBuyPrice() != null) {
+                    holdings.merge(s.getIsin(), new Holding(s.getStockName(), s.getQuantity(), s.getAverageBuyPrice()), this::mergeHoldings);
+                }
+            }
+        }
+        Map<String, Double> stored = storedPrices(holdings.keySet());
+
+        synchronized (this) {
+            stored.forEach(lastPrices::putIfAbsent);
+            index(portfolio.getId(), new PortfolioState(holdings));
+        }
+    }
+
+    public synchronized void onPortfolioDeleted(String portfolioId) {
+        PortfolioState old = portfolios.remove(portfolioId);
+        if (old != null) unindex(portfolioId, old);
+        dirty.remove(portfolioId);
+    }
+
+    public synchronized void onPricesChanged(Map<String, Double> prices) {
+        if (!ready) return;
+
+        for (var e : prices.entrySet()) {
+            Double previous = lastPrices.put(e.getKey(), e.getValue());
+            Set<String> holders = portfoliosByIsin.get(e.getKey());
+            if (holders == null || Objects.equals(previous, e.getValue())) continue;
+
+            for (String portfolioId : holders) {
+                PortfolioState state = portfolios.get(portfolioId);
+                Holding holding = state != null ? state.holdings.get(e.getKey()) : null;
+                if (holding == null) continue;
+
+                double before = previous != null ? previous : holding.averageBuyPrice();
+                state.currentValue += (e.getValue() - before) * holding.quantity();
+                dirty.add(portfolioId);
+            }
+        }
+    }
+
+    public Optional<ValuationTotals> getUserTotals(String userId) {
+        if (!ready) return Optional.empty();
+
+        double totalInvestment = 0;
+        double totalCurrentValue = 0;
+        List<UnpricedHolding> unpriced = new ArrayList<>();
+
+        for (PortfolioMetadata portfolio : userPortfolioRepository.findMetadataByUserId(userId)) {
+            String id = portfolio.getId();
+            synchronized (this) {
+                PortfolioState state = portfolios.get(id);
+                if (state == null) return Optional.empty();
+                if (dirty.contains(id)) {
+                    totalInvestment += state.investment;
+                    totalCurrentValue += state.currentValue;
+                } else if (portfolio.getValuedAt() == null) {
+                    return Optional.empty();
+                } else {
+                    totalInvestment += portfolio.getTotalInvestment();
+                    totalCurrentValue += portfolio.getTotalCurrentValue();
+                }
+                for (var e : state.holdings.entrySet()) {
+                    if (lastPrices.containsKey(e.getKey())) continue;
+                    Holding h = e.getValue();
+                    unpriced.add(new UnpricedHolding(e.getKey(), h.stockName(), h.quantity(), h.averageBuyPrice()));
+                }
+            }
+        }
+
+        return Optional.of(new ValuationTotals(totalInvestment, totalCurrentValue, unpriced));
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.snapshot.flush-interval-ms:2000}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+
+        List<String> ids = new ArrayList<>(dirty);
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserPortfolio.class);
+        Instant now = Instant.now();
+        int queued = 0;
+
+        synchronized (this) {
+            for (String id : ids) {
+                dirty.remove(id);
+                PortfolioState state = portfolios.get(id);
+                if (state == null || !ObjectId.isValid(id)) continue;
+
+                ops.updateOne(
+                        new Query(Criteria.where("_id").is(new ObjectId(id))),
+                        new Update()
+                                .set("totalCurrentValue", state.currentValue)
+                                .set("totalUnrealisedPL", state.currentValue - state.investment)
+                                .set("valuedAt", now)
+                );
+                queued++;
+            }
+        }
+
+        if (queued == 0) return;
+        try {
+            ops.execute();
+        } catch (Exception e) {
+            log.error("Failed to write {} valuation snapshots: {}", queued, e.getMessage());
+            dirty.addAll(ids);
+        }
+    }
+
+    /**
+     * Stored prices for the given ISINs that the index does not know yet. Queried without
+     * holding the monitor; callers merge the result with putIfAbsent so a price that
+     * arrived through onPricesChanged in the meantime wins.
+     */
+    private Map<String, Double> storedPrices(Collection<String> isins) {
+        List<String> unknown;
+        synchronized (this) {
+            unknown = isins.stream().filter(isin -> !lastPrices.containsKey(isin)).toList();
+        }
+        if (unknown.isEmpty()) return Collections.emptyMap();
+
+        Map<String, Double> prices = new HashMap<>();
+        for (MarketPrice p : marketPriceRepository.findByIsinIn(unknown)) {
+            if (p.getPrice() != null) prices.put(p.getIsin(), p.getPrice());
+        }
+        return prices;
+    }
+
+    private void index(String portfolioId, PortfolioState state) {
+        PortfolioState old = portfolios.put(portfolioId, state);
+        if (old != null) unindex(portfolioId, old);
+
+        for (String isin : state.holdings.keySet()) {
+            portfoliosByIsin.computeIfAbsent(isin, k -> new HashSet<>()).add(portfolioId);
+        }
+
+        state.investment = 0;
+        state.currentValue = 0;
+        for (var e : state.holdings.entrySet()) {
+            Holding h = e.getValue();
+            double price = lastPrices.getOrDefault(e.getKey(), h.averageBuyPrice());
+            state.investment += h.averageBuyPrice() * h.quantity();
+            state.currentValue += price * h.quantity();
+        }
+        dirty.add(portfolioId);
+    }
+
+    private void unindex(String portfolioId, PortfolioState old) {
+        for (String isin : old.holdings.keySet()) {
+            Set<String> holders = portfoliosByIsin.get(isin);
+            if (holders != null) {
+                holders.remove(portfolioId);
+                if (holders.isEmpty()) portfoliosByIsin.remove(isin);
+            }
+        }
+    }
+
+    private Holding mergeHoldings(Holding a, Holding b) {
+        int quantity = a.quantity() + b.quantity();
+        if (quantity == 0) return new Holding(a.stockName(), 0, a.averageBuyPrice());
+        double avg = (a.averageBuyPrice() * a.quantity() + b.averageBuyPrice() * b.quantity()) / quantity;
+        return new Holding(a.stockName(), quantity, avg);
+    }
+}
@@ -4,80 +4,76 @@ import com.ash.tracker_service.dto.AddStockDTO;
 import com.ash.tracker_service.dto.SoldStockDTO;
 import com.ash.tracker_service.entity.*;
 import com.ash.tracker_service.repository.SoldStockRepository;
-import com.ash.tracker_service.repository.UserPortfolioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @Service
 @RequiredArgsConstructor
 public class PortfolioTransactionServiceImpl implements PortfolioTransactionService {
 
-    private final UserPortfolioRepository userPortfolioRepository;
     private final SoldStockRepository soldStockRepository;
+    private final PortfolioHoldingWriter holdingWriter;
 
     @Override
     public void addStock(AddStockDTO dto) {
 
-        UserPortfolio portfolio = userPortfolioRepository
-                .findByUserIdAndAccountId(dto.getUserId(), dto.getAccountId())
-                .orElseThrow();
-
-        if (portfolio.getStocks() == null) {
-            portfolio.setStocks(new ArrayList<>());
-        }
-
-        StockHolding holding = portfolio.getStocks()
-                .stream()
-                .filter(s -> s.getIsin().equals(dto.getIsin()))
-                .findFirst()
-                .orElse(null);
-
-        if (holding != null) {
-            int newQty = holding.getQuantity() + dto.getQuantity();
-            double totalValue =
-                    (holding.getAverageBuyPrice() * holding.getQuantity())
-                            + (dto.getBuyPrice() * dto.getQuantity());
-
-            holding.setQuantity(newQty);
-            holding.setAverageBuyPrice(totalValue / newQty);
-            holding.setBuyValue(holding.getAverageBuyPrice() * newQty);
-            holding.setLastUpdated(Instant.now());
-        } else {
-            portfolio.getStocks().add(
-                    StockHolding.builder()
-                            .stockName(dto.getStockName())
-                            .isin(dto.getIsin())
-                            .quantity(dto.getQuantity())
-                            .averageBuyPrice(dto.getBuyPrice())
-                            .buyValue(dto.getBuyPrice() * dto.getQuantity())
-                            .lastUpdated(Instant.now())
-                            .build()
-            );
-        }
-
-        recalcInvestment(portfolio);
-        portfolio.setUpdatedAt(Instant.now());
-        userPortfolioRepository.save(portfolio);
+        holdingWriter.update(dto.getUserId(), dto.getAccountId(), holdings -> {
+            StockHolding holding = holdings.find(dto.getIsin());
+
+            if (holding != null) {
+                int newQty = holding.getQuantity() + dto.getQuantity();
+                double totalValue =
+                        (holding.getAverageBuyPrice() * holding.getQuantity())
+                                + (dto.getBuyPrice() * dto.getQuantity());
+
+                holding.setQuantity(newQty);
+                holding.setAverageBuyPrice(totalValue / newQty);
+                holding.setBuyValue(holding.getAverageBuyPrice() * newQty);
+                holding.setLastUpdated(Instant.now());
+                holdings.update(holding);
+            } else {
+                holdings.add(
+                        StockHolding.builder()
+                                .stockName(dto.getStockName())
+                                .isin(dto.getIsin())
+                                .quantity(dto.getQuantity())
+                                .averageBuyPrice(dto.getBuyPrice())
+                                .buyValue(dto.getBuyPrice() * dto.getQuantity())
+                                .lastUpdated(Instant.now())
+                                .build()
+                );
+            }
+            return null;
+        });
     }
 
     @Override
     public void sellStock(SoldStockDTO dto) {
 
-        UserPortfolio portfolio = userPortfolioRepository
-                .findByUserIdAndAccountId(dto.getUserId(), dto.getAccountId())
-                .orElseThrow();
-
-        StockHolding holding = portfolio.getStocks()
-                .stream()
-                .filter(s -> s.getIsin().equals(dto.getIsin()))
-                .findFirst()
-                .orElseThrow();
-
-        double investedValue = holding.getAverageBuyPrice() * dto.getQuantitySold();
+        double averageBuyPrice = holdingWriter.update(dto.getUserId(), dto.getAccountId(), holdings -> {
+            StockHolding holding = holdings.find(dto.getIsin());
+            if (holding == null) {
+                throw new NoSuchElementException("Holding not found: " + dto.getIsin());
+            }
+
+            int remaining = holding.getQuantity() - dto.getQuantitySold();
+
+            if (remaining == 0) {
+                holdings.remove(dto.getIsin());
+            } else {
+                holding.setQuantity(remaining);
+                holding.setBuyValue(holding.getAverageBuyPrice() * remaining);
+                holding.setLastUpdated(Instant.now());
+                holdings.update(holding);
+            }
+            return holding.getAverageBuyPrice();
+        });
+
+        double investedValue = averageBuyPrice * dto.getQuantitySold();
         double soldValue = dto.getSellPrice() * dto.getQuantitySold();
 
         soldStockRepository.save(
@@ -87,7 +83,7 @@ public class PortfolioTransactionServiceImpl implements PortfolioTransactionServ
                         .stockName(dto.getStockName())
                         .isin(dto.getIsin())
                         .quantitySold(dto.getQuantitySold())
-                        .averageBuyPrice(holding.getAverageBuyPrice())
+                        .averageBuyPrice(averageBuyPrice)
                         .sellPrice(dto.getSellPrice())
                         .investedValue(investedValue)
                         .soldValue(soldValue)
@@ -95,29 +91,6 @@ public class PortfolioTransactionServiceImpl implements PortfolioTransactionServ
                         .soldAt(dto.getSoldAt())
                         .build()
         );
-
-        int remaining = holding.getQuantity() - dto.getQuantitySold();
-
-        if (remaining == 0) {
-            portfolio.getStocks().remove(holding);
-        } else {
-            holding.setQuantity(remaining);
-            holding.setBuyValue(holding.getAverageBuyPrice() * remaining);
-            holding.setLastUpdated(Instant.now());
-        }
-
-        recalcInvestment(portfolio);
-        portfolio.setUpdatedAt(Instant.now());
-        userPortfolioRepository.save(portfolio);
-    }
-
-    private void recalcInvestment(UserPortfolio portfolio) {
-        portfolio.setTotalInvestment(
-                portfolio.getStocks()
-                        .stream()
-                        .mapToDouble(StockHolding::getBuyValue)
-                        .sum()
-        );
     }
     
     @Override
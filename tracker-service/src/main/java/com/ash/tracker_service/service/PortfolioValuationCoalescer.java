@@ -0,0 +1,52 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.PortfolioResponseDTO;
+import com.ash.tracker_service.dto.UserInvestmentSummaryDTO;
+import com.ash.tracker_service.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class PortfolioValuationCoalescer {
+
+    public record ValuationKey(String userId, String accountId) {
+    }
+
+    private final SingleFlight<ValuationKey, PortfolioResponseDTO> portfolios;
+    private final SingleFlight<String, List<PortfolioResponseDTO>> allPortfolios;
+    private final SingleFlight<String, UserInvestmentSummaryDTO> summaries;
+
+    public PortfolioValuationCoalescer(@Value("${portfolio.valuation.hold-ms:2000}") long holdMillis) {
+        this.portfolios = new SingleFlight<>(holdMillis);
+        this.allPortfolios = new SingleFlight<>(holdMillis);
+        this.summaries = new SingleFlight<>(holdMillis);
+    }
+
+    public PortfolioResponseDTO portfolio(String userId, String accountId, Supplier<PortfolioResponseDTO> valuation) {
+        return portfolios.execute(new ValuationKey(userId, accountId), valuation);
+    }
+
+    public List<PortfolioResponseDTO> allPortfolios(String userId, Supplier<List<PortfolioResponseDTO>> valuation) {
+        return allPortfolios.execute(userId, valuation);
+    }
+
+    public UserInvestmentSummaryDTO summary(String userId, Supplier<UserInvestmentSummaryDTO> valuation) {
+        return summaries.execute(userId, valuation);
+    }
+
+    public void invalidate(String userId) {
+        if (userId == null) return;
+        portfolios.invalidateIf(key -> userId.equals(key.userId()));
+        allPortfolios.invalidate(userId);
+        summaries.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        portfolios.invalidateIf(key -> true);
+        allPortfolios.invalidateIf(key -> true);
+        summaries.invalidateIf(key -> true);
+    }
+}
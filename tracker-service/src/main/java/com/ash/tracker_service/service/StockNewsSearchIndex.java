@@ -0,0 +1,292 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.StockNewsItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the cached news sheets. Stock name, symbol, ISIN and every row
+ * value are split into lower-case words, and each word keeps a posting list of the
+ * documents it appears in. A query keyword matches every indexed word that contains it,
+ * so substring matches keep working, and keywords are ANDed as before.
+ *
+ * <p>Saving an item appends it as a new document and marks its previous one dead; the
+ * index is rebuilt from Mongo once dead documents outnumber live ones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockNewsSearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int GRAM = 3;
+    private static final int MIN_DEAD_FOR_REBUILD = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index;
+    private List<StockNewsItem> savedDuringRebuild;
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${stock-news.search.compact-interval-ms:300000}",
+            initialDelayString = "${stock-news.search.compact-interval-ms:300000}")
+    public void compact() {
+        lock.readLock().lock();
+        try {
+            if (index == null || index.dead < MIN_DEAD_FOR_REBUILD || index.dead < index.live.cardinality()) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    /**
+     * Replaces the indexed copy of a saved item. Items without an id are skipped.
+     */
+    public void onSaved(StockNewsItem item) {
+        if (item == null || item.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            if (savedDuringRebuild != null) savedDuringRebuild.add(item);
+            if (index != null) index.add(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Items whose fields contain every whitespace-separated keyword, in the summary form
+     * returned by search (no rows). Empty if the index has not loaded yet.
+     */
+    public List<StockNewsItem> search(String query) {
+        if (query == null || query.isBlank()) return Collections.emptyList();
+
+        List<String> keywords = new ArrayList<>();
+        for (String keyword : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+            tokenize(keyword, keywords::add);
+        }
+        if (keywords.isEmpty()) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            if (index == null) return Collections.emptyList();
+
+            BitSet matches = (BitSet) index.live.clone();
+            for (String keyword : keywords) {
+                matches.and(index.documentsContaining(keyword));
+                if (matches.isEmpty()) return Collections.emptyList();
+            }
+
+            List<StockNewsItem> result = new ArrayList<>(matches.cardinality());
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                result.add(index.docs.get(doc));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (savedDuringRebuild != null) return;
+            savedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Index fresh = new Index();
+        try (Stream<StockNewsItem> items = mongoTemplate.stream(new Query(), StockNewsItem.class)) {
+            items.forEach(fresh::add);
+        } catch (RuntimeException e) {
+            log.error("Stock news search index load failed: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                savedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Saves that raced the load may or may not be in it; replaying them is idempotent
+            savedDuringRebuild.forEach(fresh::add);
+            savedDuringRebuild = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} news items ({} words) in {}ms",
+                fresh.live.cardinality(), fresh.words.size(), System.currentTimeMillis() - start);
+    }
+
+    static void tokenize(String text, Consumer<String> sink) {
+        if (text == null || text.isEmpty()) return;
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) sink.accept(word);
+        }
+    }
+
+    private static StockNewsItem summary(StockNewsItem item) {
+        return StockNewsItem.builder()
+                .id(item.getId())
+                .stockName(item.getStockName())
+                .symbol(item.getSymbol())
+                .isin(item.getIsin())
+                .sheetName(item.getSheetName())
+                .spreadsheetId(item.getSpreadsheetId())
+                .gid(item.getGid())
+                .syncedAt(item.getSyncedAt())
+                .build();
+    }
+
+    private static final class Index {
+
+        // Word id -> word, and per word the ids of documents containing it
+        final Map<String, Integer> wordIds = new HashMap<>();
+        final List<String> words = new ArrayList<>();
+        final List<Postings> postings = new ArrayList<>();
+        // Trigram -> ids of words containing it, for substring lookups
+        final Map<String, Postings> gramWords = new HashMap<>();
+
+        // Document id -> summary; a document is dead once its item has been saved again
+        final List<StockNewsItem> docs = new ArrayList<>();
+        final BitSet live = new BitSet();
+        final Map<String, Integer> docByItemId = new HashMap<>();
+        int dead;
+
+        void add(StockNewsItem item) {
+            Integer previous = docByItemId.get(item.getId());
+            if (previous != null) {
+                live.clear(previous);
+                docs.set(previous, null);
+                dead++;
+            }
+
+            int doc = docs.size();
+            docs.add(summary(item));
+            live.set(doc);
+            docByItemId.put(item.getId(), doc);
+
+            Set<String> itemWords = new HashSet<>();
+            tokenize(item.getStockName(), itemWords::add);
+            tokenize(item.getSymbol(), itemWords::add);
+            tokenize(item.getIsin(), itemWords::add);
+            if (item.getRows() != null) {
+                for (Map<String, String> row : item.getRows()) {
+                    if (row == null) continue;
+                    for (String value : row.values()) tokenize(value, itemWords::add);
+                }
+            }
+            for (String word : itemWords) {
+                postings.get(wordId(word)).add(doc);
+            }
+        }
+
+        private int wordId(String word) {
+            Integer id = wordIds.get(word);
+            if (id != null) return id;
+
+            int newId = words.size();
+            wordIds.put(word, newId);
+            words.add(word);
+            postings.add(new Postings());
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                gramWords.computeIfAbsent(word.substring(i, i + GRAM), k -> new Postings()).add(newId);
+            }
+            return newId;
+        }
+
+        /**
+         * Documents, live or dead, with a word containing {@code keyword}.
+         */
+        BitSet documentsContaining(String keyword) {
+            BitSet result = new BitSet(docs.size());
+            if (keyword.length() < GRAM) {
+                for (int w = 0; w < words.size(); w++) {
+                    if (words.get(w).contains(keyword)) postings.get(w).addTo(result);
+                }
+                return result;
+            }
+
+            int[] candidates = null;
+            for (int i = 0; i + GRAM <= keyword.length(); i++) {
+                Postings gram = gramWords.get(keyword.substring(i, i + GRAM));
+                if (gram == null) return result;
+                candidates = candidates == null ? gram.toArray() : intersect(candidates, gram);
+                if (candidates.length == 0) return result;
+            }
+            for (int w : candidates) {
+                if (words.get(w).contains(keyword)) postings.get(w).addTo(result);
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, Postings b) {
+            int[] out = new int[Math.min(a.length, b.size)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.size) {
+                if (a[i] < b.ids[j]) i++;
+                else if (a[i] > b.ids[j]) j++;
+                else { out[n++] = a[i]; i++; j++; }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    /**
+     * Sorted, de-duplicated id list built by appending ids in increasing order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) set.set(ids[i]);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -2,14 +2,30 @@ package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.entity.StockNewsItem;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 public interface StockNewsSyncService {
 
+    enum JobStatus { IDLE, RUNNING, DONE, FAILED }
+
+    class JobResult {
+        public volatile JobStatus status = JobStatus.IDLE;
+        public volatile String message = "";
+        public volatile Map<String, Integer> counts = Collections.emptyMap();
+        public volatile Instant startedAt;
+        public volatile Instant finishedAt;
+    }
+
     
     int syncAll();
 
+    void syncAllAsync();
+
+    JobResult getSyncStatus();
+
     List<StockNewsItem> getAll();
 
     StockNewsItem getBySymbol(String symbol);
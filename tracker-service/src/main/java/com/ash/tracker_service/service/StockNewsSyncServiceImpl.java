@@ -1,19 +1,32 @@
 package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.entity.StockNewsItem;
+import com.ash.tracker_service.entity.StockNewsItem.SheetVersion;
 import com.ash.tracker_service.entity.Ticker;
 import com.ash.tracker_service.entity.TickerSheetMapping;
 import com.ash.tracker_service.repository.StockNewsRepository;
 import com.ash.tracker_service.repository.TickerRepository;
 import com.ash.tracker_service.repository.TickerSheetMappingRepository;
+import com.ash.tracker_service.util.TokenBucket;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -21,9 +34,15 @@ import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,6 +57,8 @@ public class StockNewsSyncServiceImpl implements StockNewsSyncService {
     private final TickerSheetMappingService mappingService;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final StockNewsSearchIndex searchIndex;
+    private final MongoTemplate mongoTemplate;
 
     private static final Duration CACHE_TTL = Duration.ofDays(1);
 
@@ -47,92 +68,506 @@ public class StockNewsSyncServiceImpl implements StockNewsSyncService {
     @Value("${sheetnews.api-key:secret123}")
     private String sheetNewsApiKey;
 
+    @Value("${sheetnews.sync.parallelism:8}")
+    private int syncParallelism;
 
+    @Value("${sheetnews.sync.requests-per-second:10}")
+    private double requestsPerSecond;
+
+    @Value("${sheetnews.sync.burst:10}")
+    private int requestBurst;
+
+    @Value("${sheetnews.sync.batch-size:100}")
+    private int syncBatchSize;
+
+    private TokenBucket sheetNewsLimiter;
+    private final JobResult syncJob = new JobResult();
+    private final AtomicBoolean syncRunning = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        sheetNewsLimiter = new TokenBucket(requestsPerSecond, requestBurst);
+    }
+
+
+
+    @Override
+    public JobResult getSyncStatus() {
+        return syncJob;
+    }
+
+    @Override
+    @Async
+    public void syncAllAsync() {
+        syncAll();
+    }
 
     @Override
     public int syncAll() {
+        if (!syncRunning.compareAndSet(false, true)) {
+            log.warn("Stock news sync already running, skipping duplicate request");
+            return 0;
+        }
+        syncJob.status = JobStatus.RUNNING;
+        syncJob.startedAt = Instant.now();
+        syncJob.finishedAt = null;
+        syncJob.message = "Fetching stock links from SheetNews";
+        syncJob.counts = Collections.emptyMap();
+
+        try {
+            int synced = runSync();
+            syncJob.status = JobStatus.DONE;
+            return synced;
+        } catch (Exception e) {
+            log.error("Stock news sync failed", e);
+            syncJob.status = JobStatus.FAILED;
+            syncJob.message = "Sync failed: " + e.getMessage();
+            return 0;
+        } finally {
+            syncJob.finishedAt = Instant.now();
+            syncRunning.set(false);
+        }
+    }
+
+    private int runSync() throws InterruptedException {
         log.info("Starting full stock news sync...");
 
         List<Map<String, String>> stockLinks = fetchStockLinks();
         if (stockLinks.isEmpty()) {
-            log.warn("No stock links returned from SheetNews");
-            return 0;
+            throw new IllegalStateException("No stock links returned from SheetNews");
         }
+        log.info("Fetched {} stock links from SheetNews", stockLinks.size());
 
+        syncJob.message = "Loading tickers, mappings and cached news";
         List<Ticker> allTickers = tickerRepository.findAll();
-        log.info("Fetched {} stock links from SheetNews", stockLinks.size());
-        int syncedCount = 0;
+        Function<String, Optional<TickerSheetMapping>> mappings = mappingService.mappingLookup();
+        CachedItems cached = loadCachedItems();
 
+        // One task per cache item; when several tickers land on the same item the last one wins, as before
+        Map<String, SyncTask> tasks = new LinkedHashMap<>();
         for (Ticker ticker : allTickers) {
-            String symbol = ticker.getSymbol();
-            String stockName = ticker.getName();
-
-            try {
-                TickerSheetMapping mapping = mappingService.getMappingBySymbol(symbol).orElse(null);
-                
-                List<Map<String, String>> rows = new ArrayList<>();
-                String effectiveSheetName = symbol;
-                String effectiveSpreadsheetId = null;
-
-                if (mapping != null && mapping.getSelectedMappings() != null && !mapping.getSelectedMappings().isEmpty()) {
-                    effectiveSpreadsheetId = mapping.getSpreadsheetId();
-                    effectiveSheetName = mapping.getSheetName();
-                    
-                    for (TickerSheetMapping.SheetCandidate sel : mapping.getSelectedMappings()) {
-                        if (sel.getSpreadsheetId() != null && !sel.getSpreadsheetId().isBlank() && sel.getGid() != null && !sel.getGid().isBlank()) {
-                            rows.addAll(fetchNewsBySpreadsheetId(sel.getSpreadsheetId(), sel.getGid()));
-                        } else if (sel.getSheetName() != null && !sel.getSheetName().isBlank()) {
-                            rows.addAll(fetchNewsRows(sel.getSheetName()));
-                        } else {
-                            rows.addAll(fetchNewsRows(mapping.getSheetName() != null ? mapping.getSheetName() : stockName));
-                        }
-                    }
-                } else if (mapping != null && mapping.getSpreadsheetId() != null && !mapping.getSpreadsheetId().isBlank() && mapping.getGid() != null && !mapping.getGid().isBlank()) {
-                    effectiveSpreadsheetId = mapping.getSpreadsheetId();
-                    effectiveSheetName = mapping.getSheetName();
-                    rows = fetchNewsBySpreadsheetId(effectiveSpreadsheetId, mapping.getGid());
+            if (ticker.getSymbol() == null) continue;
+            TickerSheetMapping mapping = mappings.apply(ticker.getSymbol()).orElse(null);
+            String lookupSymbol = (mapping != null && mapping.getSymbol() != null && !mapping.getSymbol().isBlank())
+                    ? mapping.getSymbol() : ticker.getSymbol();
+            StockNewsItem existing = cached.find(lookupSymbol, mapping != null ? mapping.getIsin() : null);
+            String key = existing != null ? existing.getId() : "new:" + lookupSymbol.toLowerCase(Locale.ROOT);
+            tasks.put(key, new SyncTask(ticker, mapping, existing));
+        }
+
+        int total = tasks.size();
+        int synced = 0;
+        int unchanged = 0;
+        int failed = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, syncParallelism));
+        try {
+            CompletionService<SyncWrite> completion = new ExecutorCompletionService<>(pool);
+            tasks.values().forEach(task -> completion.submit(() -> buildWrite(task)));
+
+            List<SyncWrite> batch = new ArrayList<>();
+            for (int done = 1; done <= total; done++) {
+                SyncWrite write = completion.take().get();
+                if (write == null) {
+                    failed++;
                 } else {
+                    batch.add(write);
+                    if (!write.rowsChanged()) unchanged++;
+                }
 
-                    String lookupName = (mapping != null && mapping.getSheetName() != null && !mapping.getSheetName().isBlank())
-                            ? mapping.getSheetName()
-                            : (mapping != null && mapping.getStockName() != null && !mapping.getStockName().isBlank())
-                            ? mapping.getStockName()
-                            : stockName;
-                    effectiveSheetName = lookupName;
-                    rows = fetchNewsRows(lookupName);
+                if (batch.size() >= syncBatchSize || (done == total && !batch.isEmpty())) {
+                    int written = writeBatch(batch);
+                    synced += written;
+                    failed += batch.size() - written;
+                    batch.clear();
                 }
+                syncJob.message = "Synced " + synced + " of " + total + " stocks";
+                syncJob.counts = Map.of("total", total, "synced", synced, "unchanged", unchanged,
+                        "failed", failed, "pending", total - done);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
 
+        log.info("Sync complete. {}/{} stocks synced ({} unchanged), {} failed.", synced, total, unchanged, failed);
+        return synced;
+    }
 
-                String lookupSymbol = (mapping != null && mapping.getSymbol() != null && !mapping.getSymbol().isBlank())
-                        ? mapping.getSymbol() : symbol;
+    private record SyncTask(Ticker ticker, TickerSheetMapping mapping, StockNewsItem existing) {}
 
-                StockNewsItem item = stockNewsRepository.findBySymbolIgnoreCase(lookupSymbol)
-                        .or(() -> mapping != null ? stockNewsRepository.findByIsinIgnoreCase(mapping.getIsin()) : Optional.empty())
-                        .orElse(StockNewsItem.builder().symbol(lookupSymbol).build());
+    /**
+     * One item to write. With no {@code update} the item replaces the stored one; otherwise
+     * the update is applied only while the stored item still has {@code previousSyncedAt},
+     * so inserted rows cannot land on rows rewritten by a concurrent refresh. An update
+     * that finds the item changed is redone as a full rewrite from {@code sources}.
+     */
+    private record SyncWrite(StockNewsItem item, Update update, Instant previousSyncedAt, boolean rowsChanged,
+                             List<SheetSource> sources) {}
 
-                item.setSheetName(effectiveSheetName);
-                item.setSpreadsheetId(effectiveSpreadsheetId);
-                item.setGid(mapping != null ? mapping.getGid() : null);
-                item.setStockName(mapping != null ? mapping.getStockName() : stockName);
-                item.setSymbol(symbol);
-                item.setIsin(mapping != null ? mapping.getIsin() : ticker.getIsin());
-                item.setRows(rows);
-                item.setSyncedAt(Instant.now());
+    private SyncWrite buildWrite(SyncTask task) {
+        Ticker ticker = task.ticker();
+        TickerSheetMapping mapping = task.mapping();
+        try {
+            StockNewsItem item = StockNewsItem.builder()
+                    .id(task.existing() != null ? task.existing().getId() : new ObjectId().toHexString())
+                    .gid(mapping != null ? mapping.getGid() : null)
+                    .stockName(mapping != null ? mapping.getStockName() : ticker.getName())
+                    .symbol(ticker.getSymbol())
+                    .isin(mapping != null ? mapping.getIsin() : ticker.getIsin())
+                    .build();
+            SyncWrite write = planWrite(task.existing(), item, mapping, ticker.getName());
+
+            log.info("Synced: {} mappings  {} ({}) - {}",
+                    (mapping != null && mapping.getSelectedMappings() != null) ? mapping.getSelectedMappings().size() : 1,
+                    item.getStockName(), item.getSymbol(), describe(write));
+            return write;
+        } catch (Exception e) {
+            log.warn("Failed to sync ticker '{}': {}", ticker.getSymbol(), e.toString());
+            return null;
+        }
+    }
 
-                stockNewsRepository.save(item);
-                syncedCount++;
+    private int writeBatch(List<SyncWrite> batch) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockNewsItem.class);
+        for (SyncWrite write : batch) {
+            if (write.update() == null) {
+                ops.replaceOne(new Query(Criteria.where("_id").is(write.item().getId())), write.item(),
+                        FindAndReplaceOptions.options().upsert());
+            } else {
+                ops.updateOne(guard(write), write.update());
+            }
+        }
+        BulkWriteResult result;
+        try {
+            result = ops.execute();
+        } catch (Exception e) {
+            log.error("Bulk write of {} news items failed: {}", batch.size(), e.getMessage());
+            return 0;
+        }
 
-                log.info("Synced: {} mappings  {} ({})", 
-                        (mapping != null && mapping.getSelectedMappings() != null) ? mapping.getSelectedMappings().size() : 1,
-                        item.getStockName(), item.getSymbol());
+        // Replaces always match or upsert, so any shortfall is a guarded update that missed
+        Set<String> missed = result.getMatchedCount() + result.getUpserts().size() < batch.size()
+                ? missedUpdates(batch) : Collections.emptySet();
 
-            } catch (Exception e) {
-                log.warn("Failed to sync ticker '{}': {}", symbol, e.toString());
+        int written = 0;
+        List<String> reload = new ArrayList<>();
+        for (SyncWrite write : batch) {
+            if (missed.contains(write.item().getId())) {
+                if (rewrite(write)) written++;
+                continue;
+            }
+            written++;
+            if (write.update() == null) {
+                searchIndex.onSaved(write.item());
+            } else if (write.rowsChanged()) {
+                reload.add(write.item().getId());
             }
         }
+        if (!reload.isEmpty()) {
+            mongoTemplate.find(new Query(Criteria.where("_id").in(reload)), StockNewsItem.class).forEach(searchIndex::onSaved);
+        }
+        return written;
+    }
+
+    /**
+     * Ids of the guarded updates in {@code batch} that did not apply: the stored item does
+     * not carry the syncedAt the update set.
+     */
+    private Set<String> missedUpdates(List<SyncWrite> batch) {
+        Map<String, Instant> expected = new HashMap<>();
+        for (SyncWrite write : batch) {
+            if (write.update() != null) expected.put(write.item().getId(), write.item().getSyncedAt());
+        }
+        if (expected.isEmpty()) return Collections.emptySet();
 
-        log.info("Sync complete. {}/{} stocks synced.", syncedCount, stockLinks.size());
-        return syncedCount;
+        Query query = new Query(Criteria.where("_id").in(expected.keySet()));
+        query.fields().include("syncedAt");
+        Set<String> missed = new HashSet<>(expected.keySet());
+        for (StockNewsItem stored : mongoTemplate.find(query, StockNewsItem.class)) {
+            if (Objects.equals(stored.getSyncedAt(), expected.get(stored.getId()))) missed.remove(stored.getId());
+        }
+        return missed;
+    }
+
+    private void write(SyncWrite write) {
+        if (write.update() == null) {
+            searchIndex.onSaved(stockNewsRepository.save(write.item()));
+            return;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(guard(write), write.update(), StockNewsItem.class);
+        if (result.getMatchedCount() == 0) {
+            rewrite(write);
+        } else if (write.rowsChanged()) {
+            stockNewsRepository.findById(write.item().getId()).ifPresent(searchIndex::onSaved);
+        }
+    }
+
+    /**
+     * Redoes a guarded update whose item changed underneath it as a full rewrite of every
+     * sheet. Returns whether the rewrite was saved.
+     */
+    private boolean rewrite(SyncWrite missed) {
+        log.info("News item {} changed during sync, fetching all sheets again", missed.item().getSymbol());
+        try {
+            write(refetchAll(missed.item(), missed.sources()));
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to rewrite news for '{}': {}", missed.item().getSymbol(), e.toString());
+            return false;
+        }
+    }
+
+    private static Query guard(SyncWrite write) {
+        return new Query(Criteria.where("_id").is(write.item().getId()).and("syncedAt").is(write.previousSyncedAt()));
+    }
+
+    private static String describe(SyncWrite write) {
+        int rows = write.item().getSheetVersions().stream().mapToInt(SheetVersion::getRowCount).sum();
+        if (write.update() == null) return rows + " rows rewritten";
+        return rows + (write.rowsChanged() ? " rows, new rows added" : " rows, unchanged");
+    }
+
+    /**
+     * Ids, symbols, ISINs and sheet versions of every cached item, rows left out, keyed
+     * case-insensitively like the repository lookups.
+     */
+    private CachedItems loadCachedItems() {
+        Query query = new Query();
+        query.fields().include("symbol", "isin", "syncedAt", "sheetVersions");
+
+        CachedItems cached = new CachedItems(new HashMap<>(), new HashMap<>());
+        for (StockNewsItem item : mongoTemplate.find(query, StockNewsItem.class)) {
+            if (item.getSymbol() != null) cached.bySymbol().putIfAbsent(item.getSymbol().toLowerCase(Locale.ROOT), item);
+            if (item.getIsin() != null) cached.byIsin().putIfAbsent(item.getIsin().toLowerCase(Locale.ROOT), item);
+        }
+        return cached;
+    }
+
+    private record CachedItems(Map<String, StockNewsItem> bySymbol, Map<String, StockNewsItem> byIsin) {
+        StockNewsItem find(String symbol, String isin) {
+            StockNewsItem item = bySymbol.get(symbol.toLowerCase(Locale.ROOT));
+            if (item == null && isin != null) item = byIsin.get(isin.toLowerCase(Locale.ROOT));
+            return item;
+        }
+    }
+
+    private record SheetSource(String key, String url, String label) {}
+
+    private record SheetPlan(String sheetName, String spreadsheetId, List<SheetSource> sources) {}
+
+    // Null rows: not modified since the previous fetch, or the fetch failed
+    record SheetRows(List<Map<String, String>> rows, String etag, String lastModified) {}
+
+    record RowInsert(int position, List<Map<String, String>> rows) {}
+
+    /**
+     * How fetched sheets differ from their stored versions: the new versions, rows to
+     * insert, and whether the rows must be rewritten instead. {@code storedRows} is the
+     * row count the stored versions add up to.
+     */
+    record RowsDiff(List<SheetVersion> versions, List<RowInsert> inserts, boolean rewrite, int storedRows) {}
+
+    /**
+     * The sheets a ticker's news comes from: its selected sheets, its spreadsheet id and gid,
+     * or else its sheet name, falling back to {@code fallbackName} when the mapping has none.
+     */
+    private SheetPlan sheetPlan(TickerSheetMapping mapping, String fallbackName) {
+        if (mapping != null && mapping.getSelectedMappings() != null && !mapping.getSelectedMappings().isEmpty()) {
+            List<SheetSource> sources = new ArrayList<>();
+            for (TickerSheetMapping.SheetCandidate sel : mapping.getSelectedMappings()) {
+                if (sel.getSpreadsheetId() != null && !sel.getSpreadsheetId().isBlank() && sel.getGid() != null && !sel.getGid().isBlank()) {
+                    sources.add(spreadsheetSource(sel.getSpreadsheetId(), sel.getGid()));
+                } else if (sel.getSheetName() != null && !sel.getSheetName().isBlank()) {
+                    sources.add(sheetNameSource(sel.getSheetName()));
+                } else {
+                    sources.add(sheetNameSource(mapping.getSheetName() != null ? mapping.getSheetName() : fallbackName));
+                }
+            }
+            return new SheetPlan(mapping.getSheetName(), mapping.getSpreadsheetId(), sources);
+        }
+
+        if (mapping != null && mapping.getSpreadsheetId() != null && !mapping.getSpreadsheetId().isBlank() && mapping.getGid() != null && !mapping.getGid().isBlank()) {
+            return new SheetPlan(mapping.getSheetName(), mapping.getSpreadsheetId(),
+                    List.of(spreadsheetSource(mapping.getSpreadsheetId(), mapping.getGid())));
+        }
+
+        String lookupName = (mapping != null && mapping.getSheetName() != null && !mapping.getSheetName().isBlank())
+                ? mapping.getSheetName()
+                : (mapping != null && mapping.getStockName() != null && !mapping.getStockName().isBlank())
+                ? mapping.getStockName()
+                : fallbackName;
+        return new SheetPlan(lookupName, null, List.of(sheetNameSource(lookupName)));
+    }
+
+    private SheetSource spreadsheetSource(String spreadsheetId, String gid) {
+        return new SheetSource("id:" + spreadsheetId + "#" + gid,
+                sheetNewsUrl + "/api/spreadsheet-news/" + spreadsheetId + "?gid=" + gid, "ID " + spreadsheetId);
+    }
+
+    private SheetSource sheetNameSource(String sheetName) {
+        return new SheetSource("name:" + sheetName,
+                sheetNewsUrl + "/api/sheet-news/" + URLEncoder.encode(sheetName, StandardCharsets.UTF_8), sheetName);
+    }
+
+    /**
+     * Fetches the item's sheets and works out the cheapest write. Sheets are fetched
+     * conditionally when the stored versions cover the same sheets; unchanged sheets only
+     * touch metadata, and rows added at the end or the start of one sheet are inserted with
+     * a single $push. Anything else rewrites the rows.
+     */
+    private SyncWrite planWrite(StockNewsItem existing, StockNewsItem item, TickerSheetMapping mapping, String fallbackName) {
+        SheetPlan plan = sheetPlan(mapping, fallbackName);
+        item.setSheetName(plan.sheetName());
+        item.setSpreadsheetId(plan.spreadsheetId());
+
+        List<SheetSource> sources = plan.sources();
+        List<SheetVersion> previous = existing != null ? matchingVersions(existing.getSheetVersions(), sources) : null;
+        List<SheetRows> fetched = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            fetched.add(fetchRows(sources.get(i), previous != null ? previous.get(i) : null));
+        }
+        // Mongo keeps milliseconds; truncating lets a stored syncedAt be compared with this one
+        item.setSyncedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        if (previous == null) return fullWrite(item, sources, fetched);
+
+        RowsDiff diff = diffRows(previous, fetched);
+        List<SheetVersion> versions = diff.versions();
+        List<RowInsert> inserts = diff.inserts();
+        item.setSheetVersions(versions);
+
+        if (diff.rewrite() || inserts.size() > 1) {
+            List<Map<String, String>> stored = existing.getRows() != null ? existing.getRows()
+                    : stockNewsRepository.findById(existing.getId()).map(StockNewsItem::getRows).orElse(null);
+            if (stored == null || stored.size() != diff.storedRows()) {
+                log.info("Stored rows for {} do not match their sheet versions, fetching all sheets again", item.getSymbol());
+                return refetchAll(item, sources);
+            }
+
+            item.setRows(mergeRows(previous, fetched, stored));
+            return new SyncWrite(item, null, null, true, sources);
+        }
+
+        Update update = new Update()
+                .set("sheetName", item.getSheetName())
+                .set("spreadsheetId", item.getSpreadsheetId())
+                .set("gid", item.getGid())
+                .set("stockName", item.getStockName())
+                .set("symbol", item.getSymbol())
+                .set("isin", item.getIsin())
+                .set("sheetVersions", versions)
+                .set("syncedAt", item.getSyncedAt());
+        if (!inserts.isEmpty()) {
+            RowInsert insert = inserts.get(0);
+            update.push("rows").atPosition(insert.position()).each(insert.rows().toArray());
+        }
+        return new SyncWrite(item, update, existing.getSyncedAt(), !inserts.isEmpty(), sources);
+    }
+
+    /**
+     * Compares each fetched sheet with its stored version. Unchanged sheets (not fetched, or
+     * same hash) need no row changes; rows added at the end or the start of a sheet, found
+     * by hashing the old row count at either end, become an insert; anything else needs a
+     * rewrite.
+     */
+    static RowsDiff diffRows(List<SheetVersion> previous, List<SheetRows> fetched) {
+        List<SheetVersion> versions = new ArrayList<>(previous.size());
+        List<RowInsert> inserts = new ArrayList<>();
+        boolean rewrite = false;
+        int offset = 0;
+        for (int i = 0; i < previous.size(); i++) {
+            SheetVersion prev = previous.get(i);
+            List<Map<String, String>> rows = fetched.get(i).rows();
+            if (rows == null) {
+                versions.add(prev);
+                offset += prev.getRowCount();
+                continue;
+            }
+
+            String hash = rowsHash(rows);
+            versions.add(new SheetVersion(prev.getSource(), fetched.get(i).etag(), fetched.get(i).lastModified(), hash, rows.size()));
+            int added = rows.size() - prev.getRowCount();
+            if (hash.equals(prev.getContentHash())) {
+                // Same rows, new validators
+            } else if (added > 0 && prev.getContentHash().equals(rowsHash(rows.subList(0, prev.getRowCount())))) {
+                inserts.add(new RowInsert(offset + prev.getRowCount(), rows.subList(prev.getRowCount(), rows.size())));
+            } else if (added > 0 && prev.getContentHash().equals(rowsHash(rows.subList(added, rows.size())))) {
+                inserts.add(new RowInsert(offset, rows.subList(0, added)));
+            } else {
+                rewrite = true;
+            }
+            offset += prev.getRowCount();
+        }
+        return new RowsDiff(versions, inserts, rewrite, offset);
+    }
+
+    /**
+     * The item's rows after a fetch: fetched sheets take the place of their slice of
+     * {@code stored}, and sheets that were not fetched keep theirs.
+     */
+    static List<Map<String, String>> mergeRows(List<SheetVersion> previous, List<SheetRows> fetched,
+                                              List<Map<String, String>> stored) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < previous.size(); i++) {
+            List<Map<String, String>> sheetRows = fetched.get(i).rows();
+            rows.addAll(sheetRows != null ? sheetRows : stored.subList(start, start + previous.get(i).getRowCount()));
+            start += previous.get(i).getRowCount();
+        }
+        return rows;
+    }
+
+    private SyncWrite refetchAll(StockNewsItem item, List<SheetSource> sources) {
+        List<SheetRows> refetched = new ArrayList<>(sources.size());
+        for (SheetSource source : sources) refetched.add(fetchRows(source, null));
+        return fullWrite(item, sources, refetched);
+    }
+
+    private SyncWrite fullWrite(StockNewsItem item, List<SheetSource> sources, List<SheetRows> fetched) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        List<SheetVersion> versions = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            SheetRows sheet = fetched.get(i);
+            List<Map<String, String>> sheetRows = sheet.rows() != null ? sheet.rows() : Collections.emptyList();
+            rows.addAll(sheetRows);
+            versions.add(new SheetVersion(sources.get(i).key(), sheet.etag(), sheet.lastModified(), rowsHash(sheetRows), sheetRows.size()));
+        }
+        item.setRows(rows);
+        item.setSheetVersions(versions);
+        return new SyncWrite(item, null, null, true, sources);
+    }
+
+    // The stored versions, if they describe the same sheets in the same order
+    private static List<SheetVersion> matchingVersions(List<SheetVersion> stored, List<SheetSource> sources) {
+        if (stored == null || stored.size() != sources.size()) return null;
+        for (int i = 0; i < sources.size(); i++) {
+            SheetVersion version = stored.get(i);
+            if (version == null || version.getContentHash() == null || !sources.get(i).key().equals(version.getSource())) {
+                return null;
+            }
+        }
+        return stored;
+    }
+
+    static String rowsHash(List<Map<String, String>> rows) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map<String, String> row : rows) {
+            if (row != null) {
+                row.forEach((key, value) -> {
+                    digest.update(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 1);
+                });
+            }
+            digest.update((byte) 2);
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
 
@@ -166,6 +601,9 @@ public class StockNewsSyncServiceImpl implements StockNewsSyncService {
         if (query == null || query.isBlank()) {
             return Collections.emptyList();
         }
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query);
+        }
 
         String[] keywords = query.toLowerCase().split("\\s+");
 
@@ -252,58 +690,28 @@ public class StockNewsSyncServiceImpl implements StockNewsSyncService {
             }
 
             TickerSheetMapping mapping = mappingService.getMappingBySymbol(symbol).orElse(null);
-            
-            List<Map<String, String>> rows = new ArrayList<>();
-            String effectiveSheetName = symbol;
-            String effectiveSpreadsheetId = null;
-
-            if (mapping != null && mapping.getSelectedMappings() != null && !mapping.getSelectedMappings().isEmpty()) {
-                effectiveSpreadsheetId = mapping.getSpreadsheetId();
-                effectiveSheetName = mapping.getSheetName();
-                for (TickerSheetMapping.SheetCandidate sel : mapping.getSelectedMappings()) {
-                    if (sel.getSpreadsheetId() != null && !sel.getSpreadsheetId().isBlank() && sel.getGid() != null && !sel.getGid().isBlank()) {
-                        rows.addAll(fetchNewsBySpreadsheetId(sel.getSpreadsheetId(), sel.getGid()));
-                    } else if (sel.getSheetName() != null && !sel.getSheetName().isBlank()) {
-                        rows.addAll(fetchNewsRows(sel.getSheetName()));
-                    } else {
-                        rows.addAll(fetchNewsRows(mapping.getSheetName() != null ? mapping.getSheetName() : symbol));
-                    }
-                }
-            } else if (mapping != null && mapping.getSpreadsheetId() != null && !mapping.getSpreadsheetId().isBlank() && mapping.getGid() != null && !mapping.getGid().isBlank()) {
-                effectiveSpreadsheetId = mapping.getSpreadsheetId();
-                effectiveSheetName = mapping.getSheetName();
-                rows = fetchNewsBySpreadsheetId(effectiveSpreadsheetId, mapping.getGid());
-            } else {
-                String lookupName = (mapping != null && mapping.getSheetName() != null && !mapping.getSheetName().isBlank())
-                        ? mapping.getSheetName()
-                        : (mapping != null && mapping.getStockName() != null && !mapping.getStockName().isBlank())
-                        ? mapping.getStockName()
-                        : symbol;
-                effectiveSheetName = lookupName;
-                rows = fetchNewsRows(lookupName);
-            }
 
             Ticker resolvedTicker = tickerRepository.findAll().stream()
                     .filter(t -> symbol.equalsIgnoreCase(t.getSymbol()) && t.getIsin() != null)
                     .findFirst().orElse(null);
             String resolvedIsin = resolvedTicker != null ? resolvedTicker.getIsin() : null;
 
-            StockNewsItem item = cached != null ? cached
+            StockNewsItem existing = cached != null ? cached
                     : stockNewsRepository.findBySymbolIgnoreCase(symbol)
                             .or(() -> resolvedIsin != null ? stockNewsRepository.findByIsinIgnoreCase(resolvedIsin) : Optional.empty())
-                            .orElse(StockNewsItem.builder().symbol(symbol).build());
+                            .orElse(null);
 
-            item.setSheetName(effectiveSheetName);
-            item.setSpreadsheetId(effectiveSpreadsheetId);
-item.setGid(mapping != null ? mapping.getGid() : (item.getGid())); 
-            item.setSymbol(symbol);
-            item.setIsin(resolvedIsin != null ? resolvedIsin : (mapping != null ? mapping.getIsin() : null));
-            item.setStockName(mapping != null ? mapping.getStockName() : (resolvedTicker != null ? resolvedTicker.getName() : symbol));
-            item.setRows(rows);
-            item.setSyncedAt(Instant.now());
+            StockNewsItem item = StockNewsItem.builder()
+                    .id(existing != null ? existing.getId() : null)
+                    .gid(mapping != null ? mapping.getGid() : (existing != null ? existing.getGid() : null))
+                    .symbol(symbol)
+                    .isin(resolvedIsin != null ? resolvedIsin : (mapping != null ? mapping.getIsin() : null))
+                    .stockName(mapping != null ? mapping.getStockName() : (resolvedTicker != null ? resolvedTicker.getName() : symbol))
+                    .build();
 
-            stockNewsRepository.save(item);
-            log.info("Refreshed news for {} (ISIN: {}) - {} rows", symbol, item.getIsin(), rows.size());
+            SyncWrite write = planWrite(existing, item, mapping, symbol);
+            write(write);
+            log.info("Refreshed news for {} (ISIN: {}) - {}", symbol, item.getIsin(), describe(write));
 
         } catch (Exception e) {
             log.warn("Failed to refresh stale news for {}: {}", symbol, e.toString());
@@ -335,75 +743,54 @@ item.setGid(mapping != null ? mapping.getGid() : (item.getGid()));
         }
     }
 
+    /**
+     * Fetches one sheet's rows, sending the validators from {@code previous} so SheetNews
+     * can answer 304 when the sheet has not changed. Rows are null on 304 or failure.
+     */
     @SuppressWarnings("unchecked")
-    private List<Map<String, String>> fetchNewsRows(String stockName) {
+    private SheetRows fetchRows(SheetSource source, SheetVersion previous) {
         try {
-            String encodedName = URLEncoder.encode(stockName, StandardCharsets.UTF_8);
-            String url = sheetNewsUrl + "/api/sheet-news/" + encodedName;
-            log.info("Fetching news for [{}] from: {}", stockName, url);
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(apiKeyHeaders()), Map.class
-            );
-            log.info("SheetNews response for [{}]: {}", stockName, response.getStatusCode());
-            Map<String, Object> body = response.getBody();
-            if (body == null) {
-                log.warn("SheetNews returned null body for [{}]", stockName);
-                return Collections.emptyList();
-            }
-            
-            log.info("SheetNews response keys for [{}]: {}", stockName, body.keySet());
-            
-            Map<String, Object> data = (Map<String, Object>) body.get("data");
-            if (data == null) {
-                log.warn("SheetNews body contains no 'data' field for [{}]", stockName);
-                return Collections.emptyList();
+            sheetNewsLimiter.acquire();
+            HttpHeaders headers = apiKeyHeaders();
+            if (previous != null && previous.getEtag() != null) {
+                headers.setIfNoneMatch(previous.getEtag());
             }
-            
-            Object rows = data.get("data");
-            if (rows == null) {
-                log.warn("SheetNews 'data' field contains no nested 'data' (rows) for [{}]", stockName);
-                return Collections.emptyList();
+            if (previous != null && previous.getLastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.getLastModified());
             }
 
-            List<Map<String, String>> result = objectMapper.convertValue(rows, new TypeReference<List<Map<String, String>>>() {});
-            log.info("Fetched {} rows successfully for [{}]", result.size(), stockName);
-            if (!result.isEmpty()) {
-                log.info("First row for [{}]: {}", stockName, result.get(0));
-            }
-            return result;
-        } catch (Exception e) {
-            log.warn("Failed to fetch news rows for '{}': {}", stockName, e.toString());
-            return Collections.emptyList();
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String, String>> fetchNewsBySpreadsheetId(String spreadsheetId, String gid) {
-        try {
-            String url = sheetNewsUrl + "/api/spreadsheet-news/" + spreadsheetId;
-            if (gid != null && !gid.isBlank()) {
-                url += "?gid=" + gid;
-            }
-            log.info("Deterministic fetching news for ID [{}] (GID: {}) from: {}", spreadsheetId, gid, url);
+            log.info("Fetching news for [{}] from: {}", source.label(), source.url());
             ResponseEntity<Map> response = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(apiKeyHeaders()), Map.class
+                    source.url(), HttpMethod.GET, new HttpEntity<>(headers), Map.class
             );
-            log.info("SheetNews response for ID [{}]: {}", spreadsheetId, response.getStatusCode());
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                log.info("News for [{}] not modified", source.label());
+                return new SheetRows(null, previous.getEtag(), previous.getLastModified());
+            }
+            log.info("SheetNews response for [{}]: {}", source.label(), response.getStatusCode());
+
+            String etag = response.getHeaders().getETag();
+            String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
             Map<String, Object> body = response.getBody();
-            if (body == null) return Collections.emptyList();
+            if (body == null) {
+                log.warn("SheetNews returned null body for [{}]", source.label());
+                return new SheetRows(Collections.emptyList(), etag, lastModified);
+            }
 
             Map<String, Object> data = (Map<String, Object>) body.get("data");
-            if (data == null) return Collections.emptyList();
-
-            Object rows = data.get("data");
-            if (rows == null) return Collections.emptyList();
+            Object rows = data != null ? data.get("data") : null;
+            if (rows == null) {
+                log.warn("SheetNews response has no rows for [{}]", source.label());
+                return new SheetRows(Collections.emptyList(), etag, lastModified);
+            }
 
             List<Map<String, String>> result = objectMapper.convertValue(rows, new TypeReference<List<Map<String, String>>>() {});
-            log.info("Fetched {} rows successfully for ID [{}]", result.size(), spreadsheetId);
-            return result;
+            log.info("Fetched {} rows successfully for [{}]", result.size(), source.label());
+            return new SheetRows(result, etag, lastModified);
         } catch (Exception e) {
-            log.warn("Failed to fetch news by ID '{}': {}", spreadsheetId, e.getMessage());
-            return Collections.emptyList();
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("Failed to fetch news rows for '{}': {}", source.label(), e.toString());
+            return new SheetRows(null, null, null);
         }
     }
 }
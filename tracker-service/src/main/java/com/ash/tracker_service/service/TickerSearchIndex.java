@@ -0,0 +1,535 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.Ticker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * In-memory typeahead index over the tickers collection. Queries of three or more
+ * characters are answered by intersecting trigram posting lists over symbol, name and
+ * ISIN; shorter queries use a sorted array of symbol, ISIN and name-word prefixes.
+ * The index is an immutable snapshot, rebuilt on load, on a timer and when a ticker is
+ * saved through this application, and swapped in atomically.
+ *
+ * <p>Fuzzy search works on name words (with {@link TickerSheetMappingService#STOP_WORDS}
+ * removed) and symbols: padded trigrams narrow the vocabulary to likely tokens, which are
+ * then checked with a bounded edit distance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TickerSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_FUZZY_WORD = 3;
+
+    private static final int EXACT = 0;
+    private static final int SYMBOL_PREFIX = 1;
+    private static final int NAME_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Snapshot snapshot;
+
+    // Per-thread working arrays for fuzzy search, so a keystroke allocates nothing sized to the index
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ticker.search.refresh-interval-ms:900000}",
+            initialDelayString = "${ticker.search.refresh-interval-ms:900000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        try {
+            Query query = new Query();
+            query.fields().include("source", "symbol", "name", "isin", "viewCount", "lastViewedAt");
+            List<Ticker> tickers = mongoTemplate.find(query, Ticker.class);
+            Snapshot built = replace(tickers);
+            log.info("Ticker search index built: {} tickers, {} grams, {} words in {}ms",
+                    tickers.size(), built.grams.size(), built.tokens.length, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build ticker search index: {}", e.getMessage(), e);
+        }
+    }
+
+    synchronized Snapshot replace(List<Ticker> tickers) {
+        snapshot = new Snapshot(tickers);
+        return snapshot;
+    }
+
+    /**
+     * Replaces or adds one ticker without going back to Mongo.
+     */
+    public synchronized void onSaved(Ticker ticker) {
+        Snapshot current = snapshot;
+        if (current == null) return;
+
+        List<Ticker> tickers = new ArrayList<>(current.tickers.length + 1);
+        for (Ticker t : current.tickers) {
+            if (ticker.getId() == null || !ticker.getId().equals(t.getId())) tickers.add(t);
+        }
+        tickers.add(ticker);
+        snapshot = new Snapshot(tickers);
+    }
+
+    /**
+     * Returns up to {@code limit} tickers matching {@code query}: exact symbol or ISIN
+     * first, then symbol prefix, then name prefix, then any substring, with ties broken
+     * by view count.
+     */
+    public List<Ticker> search(String query, int limit) {
+        Snapshot current = snapshot;
+        String q = normalize(query);
+        if (current == null || q.isEmpty() || limit <= 0) return List.of();
+
+        int[] candidates = q.length() >= GRAM ? current.byGrams(q) : current.byPrefix(q);
+        return top(current, candidates, candidates.length, id -> current.tier(id, q), limit);
+    }
+
+    /**
+     * Looks up a ticker by symbol, ignoring case, preferring the NSE listing.
+     */
+    public Optional<Ticker> findBySymbol(String symbol) {
+        Snapshot current = snapshot;
+        if (current == null) return Optional.empty();
+        Integer id = current.bySymbol.get(normalize(symbol));
+        return id != null ? Optional.of(current.tickers[id]) : Optional.empty();
+    }
+
+    /**
+     * Returns up to {@code limit} tickers whose name words or symbol are within a few
+     * edits of the words in {@code query}, ordered by total edit distance and then view
+     * count. Query words with no close match count as one more edit than allowed.
+     */
+    public List<Ticker> searchFuzzy(String query, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || limit <= 0) return List.of();
+
+        List<String> words = fuzzyWords(query);
+        if (words.isEmpty()) return List.of();
+
+        Scratch scratch = SCRATCH.get();
+        scratch.prepare(current.tickers.length, current.tokens.length);
+        int matchedStamp = scratch.nextStamp();
+        int penalty = 0;
+
+        for (String word : words) {
+            int maxDistance = maxDistance(word);
+            penalty += maxDistance + 1;
+
+            int wordStamp = scratch.nextStamp();
+            scratch.hitCount = 0;
+            int similar = current.similarTokens(word, maxDistance, scratch);
+            for (int i = 0; i < similar; i++) {
+                int token = scratch.similar[i];
+                int d = distance(word, current.tokens[token], maxDistance);
+                if (d > maxDistance) continue;
+                for (int id : current.tokenTickers[token]) {
+                    if (scratch.wordStamp[id] != wordStamp) {
+                        scratch.wordStamp[id] = wordStamp;
+                        scratch.wordBest[id] = d;
+                        scratch.hits = Scratch.append(scratch.hits, scratch.hitCount++, id);
+                    } else if (d < scratch.wordBest[id]) {
+                        scratch.wordBest[id] = d;
+                    }
+                }
+            }
+            for (int i = 0; i < scratch.hitCount; i++) {
+                int id = scratch.hits[i];
+                if (scratch.matchedStamp[id] != matchedStamp) {
+                    scratch.matchedStamp[id] = matchedStamp;
+                    scratch.offset[id] = 0;
+                    scratch.matched = Scratch.append(scratch.matched, scratch.matchedCount++, id);
+                }
+                scratch.offset[id] += scratch.wordBest[id] - (maxDistance + 1);
+            }
+        }
+
+        // Ascending ids, so ties come out in the same order as a full scan
+        Arrays.sort(scratch.matched, 0, scratch.matchedCount);
+        int base = penalty;
+        int[] offset = scratch.offset;
+        return top(current, scratch.matched, scratch.matchedCount, id -> base + offset[id], limit);
+    }
+
+    private static List<Ticker> top(Snapshot current, int[] candidates, int count, IntUnaryOperator score, int limit) {
+        int[] best = new int[limit];
+        int[] bestScore = new int[limit];
+        int size = 0;
+        for (int c = 0; c < count; c++) {
+            int id = candidates[c];
+            int s = score.applyAsInt(id);
+            if (s < 0) continue;
+
+            int pos = size;
+            while (pos > 0 && current.before(id, s, best[pos - 1], bestScore[pos - 1])) pos--;
+            if (pos >= limit) continue;
+
+            int end = Math.min(size, limit - 1);
+            System.arraycopy(best, pos, best, pos + 1, end - pos);
+            System.arraycopy(bestScore, pos, bestScore, pos + 1, end - pos);
+            best[pos] = id;
+            bestScore[pos] = s;
+            if (size < limit) size++;
+        }
+
+        List<Ticker> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(current.tickers[best[i]]);
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Name words with stop words removed, or all words if every word is a stop word.
+     */
+    private static List<String> fuzzyWords(String text) {
+        List<String> words = words(TickerSheetMappingService.stripStopWords(text));
+        return words.isEmpty() ? words(normalize(text)) : words;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_FUZZY_WORD) words.add(word);
+        }
+        return words;
+    }
+
+    private static int maxDistance(String word) {
+        return word.length() <= 4 ? 1 : word.length() <= 8 ? 2 : 3;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count as one edit),
+     * giving up with {@code max + 1} as soon as the distance must exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                char cb = b.charAt(j - 1);
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+                        previous[j - 1] + (ca == cb ? 0 : 1));
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    d = Math.min(d, previous2[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static List<String> paddedGrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            String gram = padded.substring(i, i + GRAM);
+            if (!grams.contains(gram)) grams.add(gram);
+        }
+        return grams;
+    }
+
+    private static final class Snapshot {
+
+        private final Ticker[] tickers;
+        private final String[] symbols;
+        private final String[] names;
+        private final String[] isins;
+        private final long[] viewCounts;
+
+        private final Map<String, int[]> grams;
+        private final String[] prefixKeys;
+        private final int[] prefixIds;
+
+        private final Map<String, Integer> bySymbol;
+
+        private final String[] tokens;
+        private final int[][] tokenTickers;
+        private final Map<String, int[]> tokenGrams;
+
+        Snapshot(List<Ticker> list) {
+            int n = list.size();
+            tickers = list.toArray(new Ticker[0]);
+            symbols = new String[n];
+            names = new String[n];
+            isins = new String[n];
+            viewCounts = new long[n];
+
+            Map<String, Postings> postings = new HashMap<>();
+            List<String> keys = new ArrayList<>();
+            List<Integer> keyIds = new ArrayList<>();
+            Map<String, Postings> tokenPostings = new LinkedHashMap<>();
+            bySymbol = new HashMap<>(n * 2);
+
+            for (int id = 0; id < n; id++) {
+                Ticker t = tickers[id];
+                symbols[id] = normalize(t.getSymbol());
+                names[id] = normalize(t.getName());
+                isins[id] = normalize(t.getIsin());
+                viewCounts[id] = t.getViewCount() != null ? t.getViewCount() : 0L;
+
+                for (String field : new String[]{symbols[id], names[id], isins[id]}) {
+                    for (int i = 0; i + GRAM <= field.length(); i++) {
+                        postings.computeIfAbsent(field.substring(i, i + GRAM), k -> new Postings()).add(id);
+                    }
+                }
+
+                if (!symbols[id].isEmpty()) {
+                    Integer existing = bySymbol.get(symbols[id]);
+                    if (existing == null || ("NSE".equals(t.getSource()) && !"NSE".equals(tickers[existing].getSource()))) {
+                        bySymbol.put(symbols[id], id);
+                    }
+                }
+
+                addKey(keys, keyIds, symbols[id], id);
+                addKey(keys, keyIds, isins[id], id);
+                for (String word : names[id].split("[^\\p{L}\\p{N}]+")) {
+                    addKey(keys, keyIds, word, id);
+                }
+
+                List<String> fuzzy = new ArrayList<>(fuzzyWords(names[id]));
+                if (!symbols[id].isEmpty()) fuzzy.add(symbols[id]);
+                for (String word : fuzzy) {
+                    tokenPostings.computeIfAbsent(word, k -> new Postings()).add(id);
+                }
+            }
+
+            tokens = tokenPostings.keySet().toArray(new String[0]);
+            tokenTickers = new int[tokens.length][];
+            Map<String, Postings> gramTokens = new HashMap<>();
+            for (int t = 0; t < tokens.length; t++) {
+                tokenTickers[t] = tokenPostings.get(tokens[t]).toArray();
+                for (String gram : paddedGrams(tokens[t])) {
+                    gramTokens.computeIfAbsent(gram, k -> new Postings()).add(t);
+                }
+            }
+            tokenGrams = new HashMap<>(gramTokens.size() * 2);
+            gramTokens.forEach((gram, p) -> tokenGrams.put(gram, p.toArray()));
+
+            grams = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, p) -> grams.put(gram, p.toArray()));
+
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            prefixKeys = new String[order.length];
+            prefixIds = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                prefixKeys[i] = keys.get(order[i]);
+                prefixIds[i] = keyIds.get(order[i]);
+            }
+        }
+
+        private static void addKey(List<String> keys, List<Integer> ids, String key, int id) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+                ids.add(id);
+            }
+        }
+
+        /**
+         * Tickers containing every trigram of {@code q}. Still needs {@link #tier} to
+         * confirm the trigrams are contiguous and in one field.
+         */
+        int[] byGrams(String q) {
+            List<int[]> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= q.length(); i++) {
+                int[] list = grams.get(q.substring(i, i + GRAM));
+                if (list == null) return new int[0];
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(l -> l.length));
+
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        /**
+         * Tokens sharing enough padded trigrams with {@code word} to possibly be within
+         * {@code maxDistance} edits of it; each edit changes at most three trigrams.
+         * The tokens are left in {@code scratch.similar} and their count is returned.
+         */
+        int similarTokens(String word, int maxDistance, Scratch scratch) {
+            List<String> grams = paddedGrams(word);
+            int required = Math.max(1, grams.size() - GRAM * maxDistance);
+
+            int stamp = scratch.nextStamp();
+            int count = 0;
+            for (String gram : grams) {
+                int[] list = tokenGrams.get(gram);
+                if (list == null) continue;
+                for (int token : list) {
+                    if (scratch.sharedStamp[token] != stamp) {
+                        scratch.sharedStamp[token] = stamp;
+                        scratch.shared[token] = 0;
+                    }
+                    if (++scratch.shared[token] == required) {
+                        scratch.similar = Scratch.append(scratch.similar, count++, token);
+                    }
+                }
+            }
+            return count;
+        }
+
+        int[] byPrefix(String q) {
+            int from = Arrays.binarySearch(prefixKeys, q);
+            if (from < 0) from = -from - 1;
+
+            Postings matches = new Postings();
+            BitSet seen = new BitSet(tickers.length);
+            for (int i = from; i < prefixKeys.length && prefixKeys[i].startsWith(q); i++) {
+                int id = prefixIds[i];
+                if (!seen.get(id)) {
+                    seen.set(id);
+                    matches.add(id);
+                }
+            }
+            return matches.toArray();
+        }
+
+        int tier(int id, String q) {
+            String symbol = symbols[id];
+            if (symbol.equals(q) || isins[id].equals(q)) return EXACT;
+            if (symbol.startsWith(q)) return SYMBOL_PREFIX;
+            if (names[id].startsWith(q)) return NAME_PREFIX;
+            if (symbol.contains(q) || names[id].contains(q) || isins[id].contains(q)) return SUBSTRING;
+            return -1;
+        }
+
+        boolean before(int a, int tierA, int b, int tierB) {
+            if (tierA != tierB) return tierA < tierB;
+            if (viewCounts[a] != viewCounts[b]) return viewCounts[a] > viewCounts[b];
+            if (symbols[a].length() != symbols[b].length()) return symbols[a].length() < symbols[b].length();
+            return symbols[a].compareTo(symbols[b]) < 0;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, k = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else {
+                    out[k++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, k);
+        }
+    }
+
+    /**
+     * Working arrays reused across fuzzy searches on one thread. Entries are only valid
+     * where their stamp equals the stamp of the current pass, so nothing is cleared
+     * between searches; the lists hold the ids a pass touched.
+     */
+    private static final class Scratch {
+        private int stamp;
+
+        private int[] wordStamp = new int[0];
+        private int[] wordBest = new int[0];
+        private int[] matchedStamp = new int[0];
+        private int[] offset = new int[0];
+        private int[] sharedStamp = new int[0];
+        private int[] shared = new int[0];
+
+        private int[] hits = new int[16];
+        private int hitCount;
+        private int[] matched = new int[16];
+        private int matchedCount;
+        private int[] similar = new int[16];
+
+        void prepare(int tickers, int tokens) {
+            if (wordStamp.length < tickers) {
+                wordStamp = new int[tickers];
+                wordBest = new int[tickers];
+                matchedStamp = new int[tickers];
+                offset = new int[tickers];
+            }
+            if (sharedStamp.length < tokens) {
+                sharedStamp = new int[tokens];
+                shared = new int[tokens];
+            }
+            matchedCount = 0;
+            // A search takes a few stamps per word; restart well before they could wrap
+            if (stamp > Integer.MAX_VALUE / 2) {
+                Arrays.fill(wordStamp, 0);
+                Arrays.fill(matchedStamp, 0);
+                Arrays.fill(sharedStamp, 0);
+                stamp = 0;
+            }
+        }
+
+        int nextStamp() {
+            return ++stamp;
+        }
+
+        static int[] append(int[] list, int size, int value) {
+            if (size == list.length) list = Arrays.copyOf(list, size * 2);
+            list[size] = value;
+            return list;
+        }
+    }
+
+    /**
+     * Sorted, de-duplicated id list built by appending ids in increasing order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
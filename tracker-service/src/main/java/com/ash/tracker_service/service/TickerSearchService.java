@@ -2,49 +2,87 @@ package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.entity.Ticker;
 import com.ash.tracker_service.repository.TickerRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 @Service
-@RequiredArgsConstructor
 public class TickerSearchService {
 
+    private static final int SEARCH_LIMIT = 5;
+
     private final TickerRepository tickerRepository;
+    private final TickerSearchIndex tickerSearchIndex;
+    private final IsinSymbolResolver isinSymbolResolver;
+    private final Timer exactTimer;
+    private final Timer fuzzyTimer;
+
+    public TickerSearchService(TickerRepository tickerRepository,
+                               TickerSearchIndex tickerSearchIndex,
+                               IsinSymbolResolver isinSymbolResolver,
+                               MeterRegistry meterRegistry) {
+        this.tickerRepository = tickerRepository;
+        this.tickerSearchIndex = tickerSearchIndex;
+        this.isinSymbolResolver = isinSymbolResolver;
+        this.exactTimer = searchTimer(meterRegistry, "exact");
+        this.fuzzyTimer = searchTimer(meterRegistry, "fuzzy");
+    }
+
+    private static Timer searchTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("ticker_search_duration_seconds")
+                .description("Time taken to answer a ticker search from the in-memory index")
+                .tag("mode", mode)
+                .publishPercentiles(0.99)
+                .register(registry);
+    }
 
     public List<Ticker> search(String query) {
         if (query == null || query.trim().isEmpty()) {
             return List.of();
         }
 
-        String regex = ".*" + Pattern.quote(query.trim()) + ".*";
+        if (tickerSearchIndex.isReady()) {
+            long start = System.nanoTime();
+            List<Ticker> results = tickerSearchIndex.search(query, SEARCH_LIMIT);
+            exactTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (results.size() == SEARCH_LIMIT) {
+                return results;
+            }
 
+            // Top up with typo-tolerant matches when the query has few or no exact hits
+            start = System.nanoTime();
+            List<Ticker> merged = new ArrayList<>(results);
+            for (Ticker ticker : tickerSearchIndex.searchFuzzy(query, SEARCH_LIMIT)) {
+                if (merged.size() == SEARCH_LIMIT) break;
+                if (!merged.contains(ticker)) merged.add(ticker);
+            }
+            fuzzyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return merged;
+        }
+
+        // Only until the index has loaded after startup
+        String regex = ".*" + Pattern.quote(query.trim()) + ".*";
 
         return tickerRepository
                 .searchByQuery(regex)
                 .stream()
-                .limit(5)
+                .limit(SEARCH_LIMIT)
                 .toList();
     }
 
     public String getSymbolByIsin(String isin) {
-        
-        Ticker ticker = tickerRepository
-                .findByIsinAndSource(isin, "NSE")
-                .orElse(null);
-        
-        if (ticker != null) {
-            return ticker.getSymbol();
-        }
-        
-       
-        System.out.println("NSE ticker not found for ISIN: " + isin + ", trying BSE");
-        ticker = tickerRepository
-                .findByIsinAndSource(isin, "BSE")
+        return isinSymbolResolver.resolve(isin)
                 .orElseThrow(() -> new RuntimeException("Ticker not found in NSE or BSE for ISIN: " + isin));
-        
-        return ticker.getSymbol();
+    }
+
+    public Map<String, String> getSymbolsByIsins(Collection<String> isins) {
+        return isinSymbolResolver.resolve(isins);
     }
 }
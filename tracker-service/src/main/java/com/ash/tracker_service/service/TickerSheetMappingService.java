@@ -22,6 +22,7 @@ import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -456,7 +457,7 @@ return v2.compareTo(v1);
         };
     }
 
-    private List<SheetCandidate> findCandidates(Ticker ticker, List<Map<String, String>> sheets) {
+    List<SheetCandidate> findCandidates(Ticker ticker, List<Map<String, String>> sheets) {
         String tickerName = ticker.getName() != null ? ticker.getName().toLowerCase().trim() : "";
         String symbol = ticker.getSymbol() != null ? ticker.getSymbol().toLowerCase().trim() : "";
 
@@ -481,7 +482,7 @@ return v2.compareTo(v1);
 
 
 
-    private static final Set<String> STOP_WORDS = Set.of(
+    static final Set<String> STOP_WORDS = Set.of(
             "limited", "ltd",
             "industries", "industry",
             "enterprises", "enterprise",
@@ -504,7 +505,7 @@ return v2.compareTo(v1);
             "works", "systems", "infra"
     );
 
-    private String stripStopWords(String name) {
+    static String stripStopWords(String name) {
         if (name == null) return "";
         String[] tokens = name.toLowerCase().split("[\\s\\-&.()/,]+");
         StringBuilder sb = new StringBuilder();
@@ -518,7 +519,7 @@ return v2.compareTo(v1);
     }
 
 
-    private int scoreMatch(String tickerNameRaw, String symbolRaw, String sheetNameLower) {
+    int scoreMatch(String tickerNameRaw, String symbolRaw, String sheetNameLower) {
         if (tickerNameRaw == null || tickerNameRaw.isEmpty()) return 0;
         
         String tickerName = tickerNameRaw.toLowerCase().trim();
@@ -571,4 +572,33 @@ return v2.compareTo(v1);
 
         return java.util.Optional.empty();
     }
+
+    /**
+     * Loads every mapping once and resolves identifiers with the same rules as
+     * {@link #getMappingBySymbol}, for callers looking up many symbols in a row.
+     */
+    public Function<String, Optional<TickerSheetMapping>> mappingLookup() {
+        Map<String, TickerSheetMapping> byIsin = new HashMap<>();
+        Map<String, TickerSheetMapping> bySymbol = new HashMap<>();
+        for (TickerSheetMapping m : mappingRepository.findAll()) {
+            if (m.getIsin() != null) byIsin.putIfAbsent(m.getIsin(), m);
+            if (m.getSymbol() != null) bySymbol.putIfAbsent(m.getSymbol().toLowerCase(Locale.ROOT), m);
+        }
+
+        return identifier -> {
+            if (identifier == null || identifier.isEmpty()) return Optional.empty();
+            TickerSheetMapping found = byIsin.get(identifier);
+            if (found == null) found = bySymbol.get(identifier.toLowerCase(Locale.ROOT));
+            if (found == null) {
+                String key = identifier.toLowerCase(Locale.ROOT);
+                if (!key.contains(".")) {
+                    found = bySymbol.get(key + ".ns");
+                    if (found == null) found = bySymbol.get(key + ".bo");
+                } else {
+                    found = bySymbol.get(key.split("\\.")[0]);
+                }
+            }
+            return Optional.ofNullable(found);
+        };
+    }
 }
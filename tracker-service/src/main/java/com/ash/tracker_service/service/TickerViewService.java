@@ -1,48 +1,208 @@
 package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.entity.Ticker;
-import com.ash.tracker_service.repository.TickerRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Counts ticker views in memory and writes them to Mongo as one bulk {@code $inc} per
+ * symbol every few seconds. Lifetime totals are kept in memory too, with a small min-heap
+ * of the most viewed symbols, so the top list is served without a query.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TickerViewService {
 
+    private static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+    private static final int MAX_SYMBOL_LENGTH = 32;
+
+    private static final class PendingViews {
+        final LongAdder count = new LongAdder();
+        volatile Instant lastViewedAt;
+    }
+
     private final MongoTemplate mongoTemplate;
-    private final TickerRepository tickerRepository;
+    private final TickerSearchIndex tickerSearchIndex;
+    private final TrendingTickerService trendingTickerService;
+    private final int topSize;
+    private final Counter flushedViews;
+
+    private final Map<String, PendingViews> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Guarded by this
+    private final Map<String, Long> totals = new HashMap<>();
+    private final PriorityQueue<String> top;
+
+    public TickerViewService(MongoTemplate mongoTemplate,
+                             TickerSearchIndex tickerSearchIndex,
+                             TrendingTickerService trendingTickerService,
+                             MeterRegistry meterRegistry,
+                             @Value("${ticker.views.top-size:20}") int topSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickerSearchIndex = tickerSearchIndex;
+        this.trendingTickerService = trendingTickerService;
+        this.topSize = Math.max(1, topSize);
+        this.top = new PriorityQueue<>(Comparator.comparingLong(this::total).thenComparing(Comparator.reverseOrder()));
+        this.flushedViews = Counter.builder("ticker_views_flushed_total")
+                .description("Ticker views written to Mongo")
+                .register(meterRegistry);
+    }
+
+    public void recordView(String symbol) {
+        String key = normalize(symbol);
+        if (key == null) return;
+        if (tickerSearchIndex.isReady() && tickerSearchIndex.findBySymbol(key).isEmpty()) {
+            log.debug("recordView: unknown symbol '{}'", key);
+            return;
+        }
+
+        Instant now = Instant.now();
+        pending.compute(key, (k, views) -> {
+            if (views == null) views = new PendingViews();
+            views.count.increment();
+            views.lastViewedAt = now;
+            return views;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadTotals() {
+        Query query = new Query(Criteria.where("viewCount").gt(0));
+        query.fields().include("symbol", "viewCount");
+
+        totals.clear();
+        for (Document doc : mongoTemplate.find(query, Document.class, "tickers")) {
+            String key = normalize(doc.getString("symbol"));
+            Number count = doc.get("viewCount", Number.class);
+            if (key != null && count != null) {
+                totals.merge(key, count.longValue(), Math::max);
+            }
+        }
+
+        top.clear();
+        totals.keySet().forEach(this::offer);
+        log.info("Loaded view counts for {} symbols", totals.size());
+    }
 
+    @Scheduled(fixedDelayString = "${ticker.views.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) return;
 
-    @Async
-    public void incrementViewAsync(String symbol) {
         try {
-            Query q = new Query(Criteria.where("symbol").regex("^" + symbol + "$", "i"));
-            Update u = new Update()
-                    .inc("viewCount", 1L)
-                    .set("lastViewedAt", Instant.now());
-            long modified = mongoTemplate.updateMulti(q, u, Ticker.class).getModifiedCount();
-            if (modified == 0) {
-                log.debug("incrementViewAsync: no ticker found for symbol '{}'", symbol);
-            } else {
-                log.debug("incrementViewAsync: +1 view for '{}' ({} row(s))", symbol, modified);
+            Map<String, Long> counts = new HashMap<>();
+            Map<String, Instant> lastViewed = new HashMap<>();
+            for (Map.Entry<String, PendingViews> e : pending.entrySet()) {
+                long count = e.getValue().count.sumThenReset();
+                if (count > 0) {
+                    counts.put(e.getKey(), count);
+                    lastViewed.put(e.getKey(), e.getValue().lastViewedAt);
+                } else {
+                    // Idle since the last flush; re-checked under the entry lock so a view
+                    // recorded in between keeps its entry
+                    pending.computeIfPresent(e.getKey(), (k, v) -> v.count.sum() == 0 ? null : v);
+                }
             }
-        } catch (Exception e) {
-            log.warn("incrementViewAsync failed for {}: {}", symbol, e.getMessage());
+            if (counts.isEmpty()) return;
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticker.class);
+            counts.forEach((symbol, count) -> ops.updateMulti(
+                    new Query(Criteria.where("symbol").is(symbol)).collation(CASE_INSENSITIVE),
+                    new Update().inc("viewCount", count).set("lastViewedAt", lastViewed.get(symbol))));
+            try {
+                ops.execute();
+            } catch (Exception e) {
+                log.error("Bulk view count update for {} symbols failed: {}", counts.size(), e.getMessage());
+                counts.forEach((symbol, count) ->
+                        pending.computeIfAbsent(symbol, k -> new PendingViews()).count.add(count));
+                return;
+            }
+
+            trendingTickerService.record(counts, Instant.now());
+
+            long total = 0;
+            synchronized (this) {
+                for (Map.Entry<String, Long> e : counts.entrySet()) {
+                    totals.merge(e.getKey(), e.getValue(), Long::sum);
+                    offer(e.getKey());
+                    total += e.getValue();
+                }
+            }
+            flushedViews.increment(total);
+        } finally {
+            flushLock.unlock();
         }
     }
 
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
 
     public List<Ticker> getTopViewed() {
-        return tickerRepository.findTop20ByOrderByViewCountDesc();
+        List<String> symbols;
+        Map<String, Long> counts = new HashMap<>();
+        synchronized (this) {
+            symbols = new ArrayList<>(top);
+            symbols.forEach(s -> counts.put(s, total(s)));
+        }
+        symbols.sort(Comparator.<String>comparingLong(counts::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        List<Ticker> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            Ticker ticker = tickerSearchIndex.findBySymbol(symbol).orElse(null);
+            result.add(Ticker.builder()
+                    .id(ticker != null ? ticker.getId() : null)
+                    .source(ticker != null ? ticker.getSource() : null)
+                    .symbol(ticker != null ? ticker.getSymbol() : symbol)
+                    .name(ticker != null ? ticker.getName() : null)
+                    .isin(ticker != null ? ticker.getIsin() : null)
+                    .viewCount(counts.get(symbol))
+                    .lastViewedAt(ticker != null ? ticker.getLastViewedAt() : null)
+                    .build());
+        }
+        return result;
+    }
+
+    private long total(String symbol) {
+        return totals.getOrDefault(symbol, 0L);
+    }
+
+    // Caller holds the monitor
+    private void offer(String symbol) {
+        if (top.remove(symbol)) {
+            top.add(symbol);
+        } else if (top.size() < topSize) {
+            top.add(symbol);
+        } else if (total(symbol) > total(top.peek())) {
+            top.poll();
+            top.add(symbol);
+        }
+    }
+
+    static String normalize(String symbol) {
+        if (symbol == null) return null;
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        return key.isEmpty() || key.length() > MAX_SYMBOL_LENGTH ? null : key;
     }
 }
@@ -0,0 +1,265 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.Ticker;
+import com.ash.tracker_service.exception.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Exponentially decayed view scores per symbol over three time constants, so a ticker's
+ * score approximates its views over roughly the last hour, day or week.
+ *
+ * <p>Scores use forward decay: a view at time t adds {@code exp((t - landmark) / tau)}
+ * instead of decaying every stored score as time passes. Ordering between symbols is
+ * therefore only changed by new views, so each window keeps a sorted set and top-k is a
+ * walk of its first k entries. The landmark is moved up at every checkpoint to keep the
+ * weights small, and scores are written to Mongo decayed to the checkpoint time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingTickerService {
+
+    private static final String COLLECTION = "ticker_trending";
+    private static final double MIN_SCORE = 0.01;
+    private static final int MAX_LIMIT = 50;
+
+    public enum Window {
+        HOUR("1h", 3_600),
+        DAY("24h", 86_400),
+        WEEK("7d", 604_800);
+
+        private final String label;
+        private final double tauSeconds;
+
+        Window(String label, double tauSeconds) {
+            this.label = label;
+            this.tauSeconds = tauSeconds;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Window of(String label) {
+            for (Window w : values()) {
+                if (w.label.equalsIgnoreCase(label)) return w;
+            }
+            throw new InvalidRequestException("Unknown trending window: " + label + " (use 1h, 24h or 7d)");
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final TickerSearchIndex tickerSearchIndex;
+
+    // All guarded by this
+    private final Map<Window, Board> boards = new EnumMap<>(Window.class);
+    private final Set<String> dirty = new HashSet<>();
+    private boolean loaded;
+
+    /**
+     * Adds aggregated views, all counted at {@code at}.
+     */
+    public synchronized void record(Map<String, Long> views, Instant at) {
+        double now = seconds(at);
+        for (Window w : Window.values()) {
+            Board board = board(w, now);
+            views.forEach((symbol, count) -> board.add(symbol, count, now));
+        }
+        dirty.addAll(views.keySet());
+    }
+
+    public List<Map<String, Object>> getTrending(String window, int limit) {
+        Window w = Window.of(window);
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        double now = seconds(Instant.now());
+
+        List<Map.Entry<String, Double>> top;
+        synchronized (this) {
+            top = board(w, now).top(k, now);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(top.size());
+        for (Map.Entry<String, Double> e : top) {
+            Ticker ticker = tickerSearchIndex.findBySymbol(e.getKey()).orElse(null);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("symbol", ticker != null ? ticker.getSymbol() : e.getKey());
+            row.put("name", ticker != null ? ticker.getName() : null);
+            row.put("isin", ticker != null ? ticker.getIsin() : null);
+            row.put("score", Math.round(e.getValue() * 100) / 100.0);
+            result.add(row);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Instant now = Instant.now();
+        double nowSeconds = seconds(now);
+        int count = 0;
+        for (Document doc : mongoTemplate.findAll(Document.class, COLLECTION)) {
+            String symbol = doc.getString("_id");
+            Date updatedAt = doc.getDate("updatedAt");
+            if (symbol == null || updatedAt == null) continue;
+
+            double age = nowSeconds - seconds(updatedAt.toInstant());
+            for (Window w : Window.values()) {
+                Number stored = doc.get(w.label, Number.class);
+                if (stored != null) {
+                    board(w, nowSeconds).add(symbol, stored.doubleValue() * Math.exp(-age / w.tauSeconds), nowSeconds);
+                }
+            }
+            count++;
+        }
+        loaded = true;
+        log.info("Loaded trending scores for {} symbols", count);
+    }
+
+    @Scheduled(fixedDelayString = "${ticker.trending.checkpoint-interval-ms:60000}",
+            initialDelayString = "${ticker.trending.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        Instant now = Instant.now();
+        double nowSeconds = seconds(now);
+
+        Map<String, Document> changed = new HashMap<>();
+        Set<String> expired;
+        synchronized (this) {
+            if (!loaded) return;
+            // The week board decays slowest, so a symbol it drops is negligible everywhere
+            expired = new HashSet<>();
+            for (Map.Entry<Window, Board> e : boards.entrySet()) {
+                e.getValue().rebase(nowSeconds);
+                Set<String> dropped = e.getValue().takeExpired();
+                if (e.getKey() == Window.WEEK) expired = dropped;
+            }
+
+            for (String symbol : dirty) {
+                if (expired.contains(symbol)) continue;
+                Document scores = new Document();
+                for (Window w : Window.values()) {
+                    Board board = boards.get(w);
+                    scores.append(w.label, board != null ? board.score(symbol, nowSeconds) : 0.0);
+                }
+                changed.put(symbol, scores);
+            }
+            dirty.clear();
+        }
+
+        if (changed.isEmpty() && expired.isEmpty()) return;
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        changed.forEach((symbol, scores) -> {
+            Update update = new Update().set("updatedAt", now);
+            scores.forEach(update::set);
+            ops.upsert(new Query(Criteria.where("_id").is(symbol)), update);
+        });
+        if (!expired.isEmpty()) {
+            ops.remove(new Query(Criteria.where("_id").in(expired)));
+        }
+        try {
+            ops.execute();
+        } catch (Exception e) {
+            log.warn("Trending checkpoint of {} symbols failed: {}", changed.size(), e.getMessage());
+            synchronized (this) {
+                dirty.addAll(changed.keySet());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checkpoint();
+    }
+
+    private Board board(Window w, double now) {
+        return boards.computeIfAbsent(w, k -> new Board(k.tauSeconds, now));
+    }
+
+    private static double seconds(Instant instant) {
+        return instant.toEpochMilli() / 1000.0;
+    }
+
+    private static final class Board {
+
+        private final double tau;
+        private double landmark;
+
+        private final Map<String, Double> weights = new HashMap<>();
+        private final TreeSet<String> ranking;
+        private final Set<String> expired = new HashSet<>();
+
+        Board(double tau, double landmark) {
+            this.tau = tau;
+            this.landmark = landmark;
+            this.ranking = new TreeSet<>(Comparator.<String>comparingDouble(weights::get).reversed()
+                    .thenComparing(Comparator.naturalOrder()));
+        }
+
+        void add(String symbol, double views, double now) {
+            if (weights.containsKey(symbol)) ranking.remove(symbol);
+            weights.merge(symbol, views * Math.exp((now - landmark) / tau), Double::sum);
+            ranking.add(symbol);
+            expired.remove(symbol);
+        }
+
+        double score(String symbol, double now) {
+            Double weight = weights.get(symbol);
+            return weight == null ? 0.0 : weight * Math.exp(-(now - landmark) / tau);
+        }
+
+        List<Map.Entry<String, Double>> top(int k, double now) {
+            double decay = Math.exp(-(now - landmark) / tau);
+            List<Map.Entry<String, Double>> result = new ArrayList<>(k);
+            for (String symbol : ranking) {
+                if (result.size() == k) break;
+                result.add(Map.entry(symbol, weights.get(symbol) * decay));
+            }
+            return result;
+        }
+
+        /**
+         * Moves the landmark to {@code now}, scaling weights down to current scores, and
+         * drops symbols whose score has decayed below {@link #MIN_SCORE}.
+         */
+        void rebase(double now) {
+            double decay = Math.exp(-(now - landmark) / tau);
+            landmark = now;
+
+            // Scaling every weight by the same factor keeps the order, but the set must not
+            // see keys change under it, so rebuild it
+            ranking.clear();
+            Iterator<Map.Entry<String, Double>> it = weights.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Double> e = it.next();
+                double score = e.getValue() * decay;
+                if (score < MIN_SCORE) {
+                    it.remove();
+                    expired.add(e.getKey());
+                } else {
+                    e.setValue(score);
+                }
+            }
+            ranking.addAll(weights.keySet());
+        }
+
+        Set<String> takeExpired() {
+            Set<String> result = new HashSet<>(expired);
+            expired.clear();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.exception.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs holdings uploads off the request thread. The multipart body is spooled to a temp
+ * file before the request returns, then parsed and applied on a small bounded pool.
+ * Each user has at most one active upload; re-submitting the same file while it is
+ * queued or running returns the existing job.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+
+    public enum JobStatus { QUEUED, RUNNING, DONE, FAILED }
+
+    public static class UploadJob {
+        public final String jobId;
+        public final String userId;
+        public final String accountId;
+        public final String fileName;
+        public volatile JobStatus status = JobStatus.QUEUED;
+        public volatile String message = "Waiting to start";
+        public volatile int rowsRead;
+        public volatile Object result;
+        public final Instant submittedAt = Instant.now();
+        public volatile Instant startedAt;
+        public volatile Instant finishedAt;
+
+        private final String digest;
+
+        UploadJob(String userId, String accountId, String fileName, String digest) {
+            this.jobId = UUID.randomUUID().toString();
+            this.userId = userId;
+            this.accountId = accountId;
+            this.fileName = fileName;
+            this.digest = digest;
+        }
+
+        boolean isActive() {
+            return status == JobStatus.QUEUED || status == JobStatus.RUNNING;
+        }
+    }
+
+    private final ExcelUploadService excelUploadService;
+    private final HoldingsImportService holdingsImportService;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, UploadJob> activeByUser = new ConcurrentHashMap<>();
+
+    public UploadJobService(ExcelUploadService excelUploadService,
+                            HoldingsImportService holdingsImportService,
+                            @Value("${upload.jobs.threads:2}") int threads,
+                            @Value("${upload.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${upload.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.excelUploadService = excelUploadService;
+        this.holdingsImportService = holdingsImportService;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "upload-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public UploadJob submit(String userId, String accountId, MultipartFile file, String mode) {
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("upload-job-", ".upload");
+            String digest = spool(file, spooled);
+
+            UploadJob job = new UploadJob(userId, accountId, file.getOriginalFilename(), digest);
+            UploadJob active = activeByUser.compute(userId,
+                    (key, current) -> current != null && current.isActive() ? current : job);
+            if (active != job) {
+                deleteQuietly(spooled);
+                if (active.accountId.equals(accountId) && active.digest.equals(digest)) {
+                    return active;
+                }
+                throw new InvalidRequestException("Another upload is already in progress");
+            }
+            jobs.put(job.jobId, job);
+
+            Path jobFile = spooled;
+            try {
+                executor.execute(() -> run(job, jobFile, mode));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.jobId);
+                activeByUser.remove(userId, job);
+                deleteQuietly(jobFile);
+                throw new InvalidRequestException("Upload queue is full, please retry shortly");
+            }
+            return job;
+        } catch (IOException e) {
+            deleteQuietly(spooled);
+            throw new RuntimeException("Failed to store uploaded file", e);
+        }
+    }
+
+    public UploadJob getJob(String userId, String jobId) {
+        UploadJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new InvalidRequestException("Upload job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(UploadJob job, Path file, String mode) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = Instant.now();
+        job.message = "Reading holdings";
+        try {
+            List<ExcelStockRowDTO> rows = holdingsImportService.read(file, job.fileName, count -> job.rowsRead = count);
+
+            job.message = "Updating portfolio with " + rows.size() + " holdings";
+            job.result = excelUploadService.upload(job.userId, job.accountId, rows, mode);
+
+            job.status = JobStatus.DONE;
+            job.message = "Upload processed " + rows.size() + " holdings";
+        } catch (Exception e) {
+            log.error("Upload job {} for user {} failed: {}", job.jobId, job.userId, e.getMessage(), e);
+            job.status = JobStatus.FAILED;
+            job.message = "Error: " + e.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+            activeByUser.remove(job.userId, job);
+            deleteQuietly(file);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private String spool(MultipartFile file, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.ash.tracker_service.service;
 
 import com.ash.tracker_service.dto.UserInvestmentSummaryDTO;
-import com.ash.tracker_service.entity.SoldStock;
 import com.ash.tracker_service.entity.StockHolding;
 import com.ash.tracker_service.entity.UserPortfolio;
 import com.ash.tracker_service.repository.SoldStockRepository;
@@ -20,9 +19,33 @@ public class UserInvestmentSummaryServiceImpl implements UserInvestmentSummarySe
     private final SoldStockRepository soldStockRepository;
     private final MarketPriceService marketPriceService;
     private final MissingIsinService missingIsinService;
+    private final PortfolioValuationCoalescer valuationCoalescer;
+    private final PortfolioSnapshotService snapshotService;
 
     @Override
     public UserInvestmentSummaryDTO getSummary(String userId) {
+        return valuationCoalescer.summary(userId, () -> computeSummary(userId));
+    }
+
+    private UserInvestmentSummaryDTO computeSummary(String userId) {
+
+        var snapshot = snapshotService.getUserTotals(userId);
+        if (snapshot.isPresent()) {
+            Double realised = soldStockRepository.sumRealisedPLByUserId(userId);
+            double totalCurrentValue = snapshot.get().totalCurrentValue() + priceUnpriced(snapshot.get().unpriced());
+            double totalInvestment = snapshot.get().totalInvestment();
+
+            return UserInvestmentSummaryDTO.builder()
+                    .userId(userId)
+                    .totalInvestment(totalInvestment)
+                    .totalCurrentValue(totalCurrentValue)
+                    .totalUnrealisedPL(totalCurrentValue - totalInvestment)
+                    .totalRealisedPL(realised != null ? realised : 0)
+                    .stocksValue(totalCurrentValue)
+                    .mutualFundsValue(0)
+                    .othersValue(0)
+                    .build();
+        }
 
         Optional<List<UserPortfolio>> portfolios =
                 userPortfolioRepository.findByUserId(userId);
@@ -53,10 +76,8 @@ public class UserInvestmentSummaryServiceImpl implements UserInvestmentSummarySe
             }
         }
 
-        double realisedPL = soldStockRepository.findByUserId(userId)
-                .stream()
-                .mapToDouble(SoldStock::getRealisedPL)
-                .sum();
+        Double realised = soldStockRepository.sumRealisedPLByUserId(userId);
+        double realisedPL = realised != null ? realised : 0;
 
         return UserInvestmentSummaryDTO.builder()
                 .userId(userId)
@@ -69,4 +90,29 @@ public class UserInvestmentSummaryServiceImpl implements UserInvestmentSummarySe
                 .othersValue(0)
                 .build();
     }
+
+    /**
+     * The snapshot values holdings it has no market price for at their buy price. Fetch
+     * those prices now and return the change in current value; holdings that still have
+     * no price stay at buy price and are recorded as missing.
+     */
+    private double priceUnpriced(List<PortfolioSnapshotService.UnpricedHolding> unpriced) {
+        if (unpriced.isEmpty()) return 0;
+
+        var prices = marketPriceService.getLatestPrices(
+                unpriced.stream().map(PortfolioSnapshotService.UnpricedHolding::isin).toList()
+        );
+        snapshotService.onPricesChanged(prices);
+
+        double adjustment = 0;
+        for (var h : unpriced) {
+            Double price = prices.get(h.isin());
+            if (price == null) {
+                missingIsinService.recordMissingIsin(h.isin(), h.stockName());
+                continue;
+            }
+            adjustment += (price - h.averageBuyPrice()) * h.quantity();
+        }
+        return adjustment;
+    }
 }
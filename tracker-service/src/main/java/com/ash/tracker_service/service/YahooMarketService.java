@@ -1,7 +1,11 @@
 package com.ash.tracker_service.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -10,18 +14,33 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class YahooMarketService {
 
+    /**
+     * Prices by symbol, plus the symbols whose batch request failed and were not priced.
+     */
+    public record QuoteResult(Map<String, Double> prices, List<String> failed) {
+    }
+
     @Value("${yahoo.base-url}")
     private String yahooBaseUrl;
 
+    @Value("${yahoo.quote.batch-size:50}")
+    private int quoteBatchSize;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
 
     private HttpEntity<Void> buildEntity() {
         HttpHeaders headers = new HttpHeaders();
@@ -77,32 +96,166 @@ public class YahooMarketService {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public double getCurrentPrice(String symbol) {
-        System.out.println("Fetching price for symbol: " + symbol);
+    /**
+     * Chart price for one symbol, NSE first and then BSE.
+     */
+    public double getChartPrice(String symbol) {
+        try {
+            return fetchChartPrice(buildYahooSymbol(symbol, ".NS"));
+        } catch (Exception e) {
+            if (symbol.contains(".")) throw e;
+            return fetchChartPrice(buildYahooSymbol(symbol, ".BO"));
+        }
+    }
 
-        Object response = getChartAndQuote(symbol, "1d", "1d");
+    public int getQuoteBatchSize() {
+        return Math.max(1, quoteBatchSize);
+    }
 
-        Map<String, Object> root = (Map<String, Object>) response;
-        Map<String, Object> chart = (Map<String, Object>) root.get("chart");
+    public QuoteResult getCurrentPrices(Collection<String> symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        Set<String> failed = new LinkedHashSet<>();
 
-        List<Map<String, Object>> result =
-                (List<Map<String, Object>>) chart.get("result");
+        Map<String, String> nse = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                nse.put(buildYahooSymbol(symbol, ".NS"), symbol);
+            }
+        }
+        fetchQuotes(nse, prices, failed);
 
-        if (result == null || result.isEmpty()) {
-            throw new RuntimeException("Yahoo price not available");
+        // Symbols from a failed NSE batch are left to the caller's per-symbol chart fallback
+        Map<String, String> bse = new LinkedHashMap<>();
+        for (String symbol : nse.values()) {
+            if (!prices.containsKey(symbol) && !failed.contains(symbol) && !symbol.contains(".")) {
+                bse.put(buildYahooSymbol(symbol, ".BO"), symbol);
+            }
         }
+        fetchQuotes(bse, prices, failed);
+
+        return new QuoteResult(prices, new ArrayList<>(failed));
+    }
+
+    private void fetchQuotes(Map<String, String> symbolsByYahooSymbol, Map<String, Double> prices, Set<String> failed) {
+        List<String> yahooSymbols = new ArrayList<>(symbolsByYahooSymbol.keySet());
+        int batchSize = getQuoteBatchSize();
 
-        Map<String, Object> meta =
-                (Map<String, Object>) result.get(0).get("meta");
+        for (int i = 0; i < yahooSymbols.size(); i += batchSize) {
+            List<String> chunk = yahooSymbols.subList(i, Math.min(i + batchSize, yahooSymbols.size()));
+            try {
+                fetchQuoteBatch(chunk).forEach((yahooSymbol, price) -> {
+                    String symbol = symbolsByYahooSymbol.get(yahooSymbol);
+                    if (symbol != null) {
+                        prices.put(symbol, price);
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Batch quote failed for {} symbols: {}", chunk.size(), e.getMessage());
+                for (String yahooSymbol : chunk) {
+                    failed.add(symbolsByYahooSymbol.get(yahooSymbol));
+                }
+            }
+        }
+    }
 
-        Object price = meta.get("regularMarketPrice");
+    private Map<String, Double> fetchQuoteBatch(List<String> yahooSymbols) {
+        String url = yahooBaseUrl +
+                "v7/finance/quote?symbols=" + URLEncoder.encode(String.join(",", yahooSymbols), StandardCharsets.UTF_8) +
+                "&fields=regularMarketPrice";
 
+        Map<String, Double> prices = restTemplate.execute(
+                URI.create(url),
+                HttpMethod.GET,
+                request -> request.getHeaders().putAll(buildEntity().getHeaders()),
+                response -> parseQuotePrices(response.getBody())
+        );
+        return prices != null ? prices : Collections.emptyMap();
+    }
+
+    private double fetchChartPrice(String yahooSymbol) {
+        String url = yahooBaseUrl +
+                "v8/finance/chart/" + yahooSymbol +
+                "?interval=1d&range=1d";
+
+        Double price = restTemplate.execute(
+                url,
+                HttpMethod.GET,
+                request -> request.getHeaders().putAll(buildEntity().getHeaders()),
+                response -> parseChartPrice(response.getBody())
+        );
         if (price == null) {
-            throw new RuntimeException("regularMarketPrice missing");
+            throw new RuntimeException("Yahoo price not available");
+        }
+        return price;
+    }
+
+    private Map<String, Double> parseQuotePrices(InputStream body) throws IOException {
+        Map<String, Double> prices = new HashMap<>();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME || !"result".equals(parser.currentName())) continue;
+                if (parser.nextToken() != JsonToken.START_ARRAY) break;
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    String symbol = null;
+                    Double price = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("symbol".equals(field)) {
+                            symbol = parser.getValueAsString();
+                        } else if ("regularMarketPrice".equals(field)) {
+                            price = readPrice(parser, value);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (symbol != null && price != null) {
+                        prices.put(symbol.toUpperCase(), price);
+                    }
+                }
+                break;
+            }
         }
+        return prices;
+    }
 
-        return ((Number) price).doubleValue();
+    private Double parseChartPrice(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "regularMarketPrice".equals(parser.currentName())) {
+                    Double price = readPrice(parser, parser.nextToken());
+                    if (price == null) {
+                        throw new RuntimeException("regularMarketPrice missing");
+                    }
+                    return price;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Double readPrice(JsonParser parser, JsonToken value) throws IOException {
+        if (value != null && value.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (value == JsonToken.START_OBJECT) {
+            Double raw = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken inner = parser.nextToken();
+                if ("raw".equals(field) && inner.isNumeric()) {
+                    raw = parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return raw;
+        }
+        return null;
     }
 
     public Object getIndexChartAndQuote(String symbol, String interval, String range) {
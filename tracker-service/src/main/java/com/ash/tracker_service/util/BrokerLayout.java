@@ -0,0 +1,136 @@
+package com.ash.tracker_service.util;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.exception.InvalidRequestException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Holdings export layouts, identified by their header row. Header names are compared with
+ * case, spacing and punctuation removed, so "Avg. Cost" and "avg cost" are the same column.
+ */
+public enum BrokerLayout {
+
+    GROWW(
+            List.of("stockname"),
+            List.of("isin"),
+            List.of("quantity"),
+            List.of("averagebuyprice")),
+    ZERODHA(
+            List.of("symbol", "instrument"),
+            List.of("isin"),
+            List.of("quantityavailable", "qty", "quantity"),
+            List.of("averageprice", "avgcost")),
+    UPSTOX(
+            List.of("companyname", "scripname"),
+            List.of("isin"),
+            List.of("netqty", "quantity"),
+            List.of("avgprice", "averageprice")),
+    GENERIC(
+            List.of("stockname", "stock", "name", "securityname", "scrip", "symbol"),
+            List.of("isin", "isincode"),
+            List.of("quantity", "qty", "holdingquantity", "totalquantity", "units"),
+            List.of("averagebuyprice", "avgbuyprice", "averageprice", "avgprice", "averagecost", "avgcost", "buyprice", "buyavg"));
+
+    private final List<String> stockName;
+    private final List<String> isin;
+    private final List<String> quantity;
+    private final List<String> averageBuyPrice;
+
+    BrokerLayout(List<String> stockName, List<String> isin, List<String> quantity, List<String> averageBuyPrice) {
+        this.stockName = stockName;
+        this.isin = isin;
+        this.quantity = quantity;
+        this.averageBuyPrice = averageBuyPrice;
+    }
+
+    public record Columns(BrokerLayout layout, int stockName, int isin, int quantity, int averageBuyPrice) {
+
+        public int maxColumn() {
+            return Math.max(Math.max(stockName, isin), Math.max(quantity, averageBuyPrice));
+        }
+
+        public boolean isMapped(int column) {
+            return column == stockName || column == isin || column == quantity || column == averageBuyPrice;
+        }
+
+        /**
+         * Builds a row from the mapped cells, or returns null for rows without a name or
+         * ISIN (blank lines, totals and footnotes below the table). Blank quantity or price
+         * cells read as zero; anything else that is not a number is rejected with the
+         * 1-based {@code rowNumber} in the message.
+         */
+        public ExcelStockRowDTO toRow(int rowNumber, IntFunction<String> cell) {
+            String name = trim(cell.apply(stockName));
+            String isinValue = trim(cell.apply(isin));
+
+            if (name.isEmpty() || isinValue.isEmpty()) return null;
+
+            ExcelStockRowDTO dto = new ExcelStockRowDTO();
+            dto.setStockName(name);
+            dto.setIsin(isinValue);
+            dto.setQuantity((int) parseDouble(cell.apply(quantity), rowNumber, "quantity"));
+            dto.setAverageBuyPrice(parseDouble(cell.apply(averageBuyPrice), rowNumber, "average buy price"));
+            return dto;
+        }
+    }
+
+    /**
+     * Returns the column mapping of the first layout whose columns are all present in
+     * {@code header}, or empty if this row is not a holdings header.
+     */
+    public static Optional<Columns> detect(List<String> header) {
+        if (header == null || header.size() < 4) return Optional.empty();
+
+        String[] normalized = new String[header.size()];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = normalize(header.get(i));
+        }
+
+        for (BrokerLayout layout : values()) {
+            int name = indexOf(normalized, layout.stockName);
+            int isin = indexOf(normalized, layout.isin);
+            int quantity = indexOf(normalized, layout.quantity);
+            int avg = indexOf(normalized, layout.averageBuyPrice);
+            if (name >= 0 && isin >= 0 && quantity >= 0 && avg >= 0) {
+                return Optional.of(new Columns(layout, name, isin, quantity, avg));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static int indexOf(String[] header, List<String> aliases) {
+        for (String alias : aliases) {
+            for (int i = 0; i < header.length; i++) {
+                if (alias.equals(header[i])) return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) return "";
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : "";
+    }
+
+    private static double parseDouble(String value, int rowNumber, String column) {
+        if (value == null || value.trim().isEmpty()) return 0.0;
+        try {
+            return Double.parseDouble(value.replace(",", "").trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Row " + rowNumber + ": invalid " + column + " \"" + value.trim() + "\"");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ash.tracker_service.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV/TSV tokenizer. Each record is unquoted into one reusable char buffer and
+ * fields are tracked as offsets into it, so a String is only created for the columns a
+ * caller actually reads. Supports RFC 4180 quoting, doubled quotes, quoted newlines,
+ * CRLF line endings and a leading byte order mark.
+ */
+public class DelimitedTokenizer {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+
+    private final char[] input = new char[8192];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[512];
+    private int length;
+
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int fields;
+
+    private boolean started;
+
+    public DelimitedTokenizer(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Advances to the next record. Returns false at end of input.
+     */
+    public boolean next() throws IOException {
+        length = 0;
+        fields = 0;
+
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') c = read();
+        }
+        if (c == EOF) return false;
+
+        int fieldStart = 0;
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    endField(fieldStart);
+                    return true;
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                append((char) c);
+            } else if (c == EOF || c == '\n') {
+                endField(fieldStart);
+                return true;
+            } else if (c == delimiter) {
+                endField(fieldStart);
+                fieldStart = length;
+            } else if (c == '"' && length == fieldStart) {
+                quoted = true;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    public int fieldCount() {
+        return fields;
+    }
+
+    public String field(int index) {
+        if (index < 0 || index >= fields) return null;
+        return new String(record, starts[index], ends[index] - starts[index]);
+    }
+
+    public boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(record[i])) return false;
+        }
+        return true;
+    }
+
+    private void endField(int fieldStart) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+            ends = Arrays.copyOf(ends, fields * 2);
+        }
+        starts[fields] = fieldStart;
+        ends[fields] = length;
+        fields++;
+    }
+
+    private void append(char c) {
+        if (length == record.length) {
+            record = Arrays.copyOf(record, length * 2);
+        }
+        record[length++] = c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(input, 0, input.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return input[position++];
+    }
+}
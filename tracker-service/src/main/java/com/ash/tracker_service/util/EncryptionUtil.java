@@ -1,66 +1,158 @@
 package com.ash.tracker_service.util;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EncryptionUtil {
 
     private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final int GCM_TAG_LENGTH = 128;
     private static final int IV_LENGTH = 12;
+    private static final int BLIND_INDEX_LENGTH = 16;
     private static final String PREFIX = "ENC:";
+    private static final byte[] BLIND_INDEX_CONTEXT = "isin-blind-index".getBytes(StandardCharsets.UTF_8);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Map<String, Engine> ENGINES = new ConcurrentHashMap<>();
 
     public static String encrypt(String plainText, String secretKey) {
         if (plainText == null || plainText.isEmpty()) return plainText;
-        try {
-            byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
+        return engine(secretKey).encrypt(plainText, PREFIX);
+    }
 
-            byte[] iv = new byte[IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
+    /**
+     * Encrypts under a versioned key, producing {@code ENC:<keyId>:<base64>}. Base64 never
+     * contains ':', so these values stay distinguishable from the unversioned format.
+     */
+    public static String encrypt(String plainText, String keyId, String secretKey) {
+        if (plainText == null || plainText.isEmpty()) return plainText;
+        return engine(secretKey).encrypt(plainText, PREFIX + keyId + ":");
+    }
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
-            byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Decrypts either format with {@code secretKey}; use {@link #keyId} to pick the key.
+     */
+    public static String decrypt(String cipherText, String secretKey) {
+        if (cipherText == null || !cipherText.startsWith(PREFIX)) return cipherText;
+        int separator = cipherText.indexOf(':', PREFIX.length());
+        return engine(secretKey).decrypt(cipherText.substring(separator < 0 ? PREFIX.length() : separator + 1));
+    }
 
-            byte[] combined = new byte[IV_LENGTH + encrypted.length];
-            System.arraycopy(iv, 0, combined, 0, IV_LENGTH);
-            System.arraycopy(encrypted, 0, combined, IV_LENGTH, encrypted.length);
+    /**
+     * Returns the key id of a versioned ciphertext, or null for plaintext and values
+     * written before keys were versioned.
+     */
+    public static String keyId(String cipherText) {
+        if (cipherText == null || !cipherText.startsWith(PREFIX)) return null;
+        int separator = cipherText.indexOf(':', PREFIX.length());
+        return separator < 0 ? null : cipherText.substring(PREFIX.length(), separator);
+    }
 
-            return PREFIX + Base64.getEncoder().encodeToString(combined);
-        } catch (Exception e) {
-            throw new RuntimeException("Encryption failed", e);
-        }
+    public static boolean isEncrypted(String value) {
+        return value != null && value.startsWith(PREFIX);
     }
 
-    public static String decrypt(String cipherText, String secretKey) {
-        if (cipherText == null || !cipherText.startsWith(PREFIX)) return cipherText;
-        try {
-            byte[] combined = Base64.getDecoder().decode(cipherText.substring(PREFIX.length()));
-            byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
+    /**
+     * Deterministic keyed hash of an ISIN, so holdings can be matched and indexed by ISIN
+     * without decrypting them. The HMAC key is derived from {@code secretKey} rather than
+     * being the AES key itself.
+     */
+    public static String blindIndex(String isin, String secretKey) {
+        if (isin == null || isin.isBlank()) return null;
+        return engine(secretKey).blindIndex(isin);
+    }
 
-            byte[] iv = new byte[IV_LENGTH];
-            System.arraycopy(combined, 0, iv, 0, IV_LENGTH);
+    private static Engine engine(String secretKey) {
+        return ENGINES.computeIfAbsent(secretKey, Engine::new);
+    }
 
-            byte[] encrypted = new byte[combined.length - IV_LENGTH];
-            System.arraycopy(combined, IV_LENGTH, encrypted, 0, encrypted.length);
+    /**
+     * Key material and per-thread Cipher/Mac instances for one secret. Building these is
+     * far more expensive than the encryption of a short field, so they are made once.
+     */
+    private static final class Engine {
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
-            byte[] decrypted = cipher.doFinal(encrypted);
+        private final SecretKeySpec keySpec;
+        private final SecretKeySpec blindIndexKey;
+        private final ThreadLocal<Cipher> ciphers;
+        private final ThreadLocal<Mac> macs;
 
-            return new String(decrypted, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException("Decryption failed", e);
+        Engine(String secretKey) {
+            this.keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "AES");
+            try {
+                Mac derive = Mac.getInstance(HMAC_ALGORITHM);
+                derive.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+                this.blindIndexKey = new SecretKeySpec(derive.doFinal(BLIND_INDEX_CONTEXT), HMAC_ALGORITHM);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException("Failed to initialise encryption", e);
+            }
+            this.ciphers = ThreadLocal.withInitial(() -> {
+                try {
+                    return Cipher.getInstance(ALGORITHM);
+                } catch (GeneralSecurityException e) {
+                    throw new RuntimeException("Failed to initialise encryption", e);
+                }
+            });
+            this.macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                    mac.init(blindIndexKey);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new RuntimeException("Failed to initialise encryption", e);
+                }
+            });
         }
-    }
 
-    public static boolean isEncrypted(String value) {
-        return value != null && value.startsWith(PREFIX);
+        String encrypt(String plainText, String prefix) {
+            try {
+                byte[] plain = plainText.getBytes(StandardCharsets.UTF_8);
+                Cipher cipher = ciphers.get();
+
+                byte[] iv = new byte[IV_LENGTH];
+                RANDOM.nextBytes(iv);
+                cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+
+                byte[] combined = new byte[IV_LENGTH + cipher.getOutputSize(plain.length)];
+                System.arraycopy(iv, 0, combined, 0, IV_LENGTH);
+                cipher.doFinal(plain, 0, plain.length, combined, IV_LENGTH);
+
+                return prefix + Base64.getEncoder().encodeToString(combined);
+            } catch (Exception e) {
+                throw new RuntimeException("Encryption failed", e);
+            }
+        }
+
+        String decrypt(String encoded) {
+            try {
+                byte[] combined = Base64.getDecoder().decode(encoded);
+                Cipher cipher = ciphers.get();
+
+                cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(GCM_TAG_LENGTH, combined, 0, IV_LENGTH));
+                byte[] decrypted = cipher.doFinal(combined, IV_LENGTH, combined.length - IV_LENGTH);
+
+                return new String(decrypted, StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                throw new RuntimeException("Decryption failed", e);
+            }
+        }
+
+        String blindIndex(String isin) {
+            Mac mac = macs.get();
+            byte[] digest = mac.doFinal(isin.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            byte[] truncated = new byte[BLIND_INDEX_LENGTH];
+            System.arraycopy(digest, 0, truncated, 0, BLIND_INDEX_LENGTH);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(truncated);
+        }
     }
 }
@@ -1,37 +1,134 @@
 package com.ash.tracker_service.util;
 
 import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.exception.InvalidRequestException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ExcelParser {
 
     public static List<ExcelStockRowDTO> parse(MultipartFile file) {
-
         List<ExcelStockRowDTO> rows = new ArrayList<>();
+        parse(file, rows::add);
+        return rows;
+    }
+
+    public static int parse(MultipartFile file, Consumer<ExcelStockRowDTO> consumer) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("holdings-", ".upload");
+            file.transferTo(temp);
+            return parse(temp, consumer);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse excel", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Emits holdings rows to {@code consumer} as they are read. .xlsx sheets are streamed
+     * straight out of the zip; legacy .xls files still go through the workbook model.
+     * Returns the number of rows emitted.
+     */
+    public static int parse(Path file, Consumer<ExcelStockRowDTO> consumer) {
+        int[] count = {0};
+        Consumer<ExcelStockRowDTO> counting = row -> {
+            consumer.accept(row);
+            count[0]++;
+        };
+
+        try {
+            if (FileMagic.valueOf(file.toFile()) == FileMagic.OOXML) {
+                parseXlsx(file.toFile(), counting);
+            } else {
+                try (InputStream in = Files.newInputStream(file)) {
+                    parseWorkbook(in, counting);
+                }
+            }
+        } catch (InvalidRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse excel", e);
+        }
+
+        return count[0];
+    }
+
+    private static void parseXlsx(File file, Consumer<ExcelStockRowDTO> consumer) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new RuntimeException("Stock table header not found");
+            }
+
+            HoldingsSheetHandler handler = new HoldingsSheetHandler(consumer);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+
+            if (handler.columns == null) {
+                throw new RuntimeException("Stock table header not found");
+            }
+        }
+    }
 
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
+    private static void parseWorkbook(InputStream in, Consumer<ExcelStockRowDTO> consumer) throws Exception {
+        try (Workbook workbook = WorkbookFactory.create(in)) {
 
             Sheet sheet = workbook.getSheetAt(0);
             DataFormatter formatter = new DataFormatter();
 
             int headerRowIndex = -1;
+            BrokerLayout.Columns columns = null;
 
             for (int i = 0; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
 
-                String firstCell = formatter.formatCellValue(row.getCell(0)).trim();
-                if ("Stock Name".equalsIgnoreCase(firstCell)) {
+                List<String> header = new ArrayList<>();
+                for (int c = 0; c < row.getLastCellNum(); c++) {
+                    header.add(formatter.formatCellValue(row.getCell(c)));
+                }
+                Optional<BrokerLayout.Columns> detected = BrokerLayout.detect(header);
+                if (detected.isPresent()) {
                     headerRowIndex = i;
+                    columns = detected.get();
                     break;
                 }
             }
 
-            if (headerRowIndex == -1) {
+            if (columns == null) {
                 throw new RuntimeException("Stock table header not found");
             }
 
@@ -40,32 +137,74 @@ public class ExcelParser {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
 
-                String stockName = formatter.formatCellValue(row.getCell(0)).trim();
-                String isin = formatter.formatCellValue(row.getCell(1)).trim();
+                ExcelStockRowDTO dto = columns.toRow(i + 1, c -> formatter.formatCellValue(row.getCell(c)));
+                if (dto != null) {
+                    consumer.accept(dto);
+                }
+            }
+        }
+    }
 
-                if (stockName.isEmpty() || isin.isEmpty()) continue;
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (Exception ignored) {
+        }
+    }
 
-                int quantity = (int) parseDouble(formatter.formatCellValue(row.getCell(2)));
-                double avgBuyPrice = parseDouble(formatter.formatCellValue(row.getCell(3)));
+    /**
+     * Until the header is found each row is buffered whole so it can be matched against
+     * the broker layouts. After that only the four mapped cells of the current row are
+     * kept, so memory stays flat however many rows or columns the sheet has.
+     */
+    private static final class HoldingsSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
 
-                ExcelStockRowDTO dto = new ExcelStockRowDTO();
-                dto.setStockName(stockName);
-                dto.setIsin(isin);
-                dto.setQuantity(quantity);
-                dto.setAverageBuyPrice(avgBuyPrice);
+        private final Consumer<ExcelStockRowDTO> consumer;
+        private final List<String> headerCells = new ArrayList<>();
+        private BrokerLayout.Columns columns;
+        private String[] cells;
 
-                rows.add(dto);
+        HoldingsSheetHandler(Consumer<ExcelStockRowDTO> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            if (columns == null) {
+                headerCells.clear();
+            } else {
+                Arrays.fill(cells, null);
             }
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse excel", e);
+        @Override
+        public void endRow(int rowNum) {
+            if (columns == null) {
+                BrokerLayout.detect(headerCells).ifPresent(detected -> {
+                    columns = detected;
+                    cells = new String[detected.maxColumn() + 1];
+                });
+                return;
+            }
+
+            ExcelStockRowDTO dto = columns.toRow(rowNum + 1, c -> cells[c]);
+            if (dto != null) {
+                consumer.accept(dto);
+            }
         }
 
-        return rows;
-    }
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null) return;
+            int col = new CellReference(cellReference).getCol();
 
-    private static double parseDouble(String value) {
-        if (value == null || value.trim().isEmpty()) return 0.0;
-        return Double.parseDouble(value.replace(",", "").trim());
+            if (columns == null) {
+                while (headerCells.size() < col) headerCells.add(null);
+                headerCells.add(formattedValue);
+            } else if (columns.isMapped(col)) {
+                cells[col] = formattedValue;
+            }
+        }
     }
 }
@@ -0,0 +1,87 @@
+package com.ash.tracker_service.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The set of keys holdings may be encrypted under. New values are written with the active
+ * key; older values are decrypted with whichever key their id names, or with the legacy
+ * key if they carry no id. The legacy key also seeds the ISIN blind index, which must
+ * stay stable across rotations so existing hashes keep matching.
+ */
+public class KeyRing {
+
+    private final String legacyKey;
+    private final Map<String, String> keys;
+    private final String activeKeyId;
+
+    public KeyRing(String legacyKey, Map<String, String> keys, String activeKeyId) {
+        if (legacyKey == null || legacyKey.isEmpty()) {
+            throw new IllegalArgumentException("Legacy encryption key is required");
+        }
+        for (String id : keys.keySet()) {
+            if (id.isEmpty() || id.indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Invalid encryption key id: '" + id + "'");
+            }
+        }
+        if (activeKeyId != null && !keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Active encryption key id not configured: " + activeKeyId);
+        }
+        this.legacyKey = legacyKey;
+        this.keys = Collections.unmodifiableMap(new LinkedHashMap<>(keys));
+        this.activeKeyId = activeKeyId;
+    }
+
+    /**
+     * Builds a key ring from {@code id:secret} pairs separated by commas, e.g.
+     * {@code "2025a:...,2026a:..."}. A blank active id keeps writing the legacy format.
+     */
+    public static KeyRing parse(String legacyKey, String keySpec, String activeKeyId) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (keySpec != null) {
+            for (String entry : keySpec.split(",")) {
+                if (entry.isBlank()) continue;
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Encryption keys must be given as id:secret");
+                }
+                keys.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        return new KeyRing(legacyKey, keys,
+                activeKeyId == null || activeKeyId.isBlank() ? null : activeKeyId.trim());
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public String encrypt(String plainText) {
+        return activeKeyId == null
+                ? EncryptionUtil.encrypt(plainText, legacyKey)
+                : EncryptionUtil.encrypt(plainText, activeKeyId, keys.get(activeKeyId));
+    }
+
+    public String decrypt(String cipherText) {
+        if (!EncryptionUtil.isEncrypted(cipherText)) return cipherText;
+        String id = EncryptionUtil.keyId(cipherText);
+        String secret = id == null ? legacyKey : keys.get(id);
+        if (secret == null) {
+            throw new IllegalStateException("Unknown encryption key id: " + id);
+        }
+        return EncryptionUtil.decrypt(cipherText, secret);
+    }
+
+    /**
+     * True if {@code cipherText} is already encrypted under the active key.
+     */
+    public boolean isCurrent(String cipherText) {
+        return EncryptionUtil.isEncrypted(cipherText) && Objects.equals(EncryptionUtil.keyId(cipherText), activeKeyId);
+    }
+
+    public String blindIndex(String isin) {
+        return EncryptionUtil.blindIndex(isin, legacyKey);
+    }
+}
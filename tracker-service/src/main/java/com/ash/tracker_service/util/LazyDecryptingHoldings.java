@@ -0,0 +1,62 @@
+package com.ash.tracker_service.util;
+
+import com.ash.tracker_service.entity.StockHolding;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Holdings list that decrypts each holding's name and ISIN the first time it is read,
+ * so loading a portfolio costs nothing for code that never looks at its stocks.
+ */
+public class LazyDecryptingHoldings extends AbstractList<StockHolding> implements RandomAccess {
+
+    private final List<StockHolding> holdings;
+    private final KeyRing keyRing;
+
+    public LazyDecryptingHoldings(List<StockHolding> holdings, KeyRing keyRing) {
+        this.holdings = holdings;
+        this.keyRing = keyRing;
+    }
+
+    @Override
+    public StockHolding get(int index) {
+        StockHolding stock = holdings.get(index);
+        if (stock != null) {
+            if (EncryptionUtil.isEncrypted(stock.getStockName())) {
+                stock.setStockName(keyRing.decrypt(stock.getStockName()));
+            }
+            if (EncryptionUtil.isEncrypted(stock.getIsin())) {
+                stock.setIsin(keyRing.decrypt(stock.getIsin()));
+            }
+        }
+        return stock;
+    }
+
+    @Override
+    public int size() {
+        return holdings.size();
+    }
+
+    @Override
+    public StockHolding set(int index, StockHolding element) {
+        StockHolding previous = get(index);
+        holdings.set(index, element);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, StockHolding element) {
+        holdings.add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public StockHolding remove(int index) {
+        StockHolding removed = get(index);
+        holdings.remove(index);
+        modCount++;
+        return removed;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ash.tracker_service.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time. Callers arriving while a computation
+ * is in flight share its result, and a completed result is reused for {@code holdMillis}.
+ * Completed calls are dropped once the hold has passed, so the map only holds keys
+ * served within the last {@code holdMillis}.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final long holdNanos;
+    private final Executor evictor;
+
+    public SingleFlight(long holdMillis) {
+        this.holdNanos = holdMillis * 1_000_000L;
+        this.evictor = CompletableFuture.delayedExecutor(Math.max(0, holdMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        while (true) {
+            Call<V> call = calls.get(key);
+            if (call != null && call.isExpired(holdNanos)) {
+                calls.remove(key, call);
+                call = null;
+            }
+
+            if (call == null) {
+                Call<V> mine = new Call<>();
+                if (calls.putIfAbsent(key, mine) != null) {
+                    continue;
+                }
+                try {
+                    V value = supplier.get();
+                    mine.complete(value);
+                    evictor.execute(() -> calls.remove(key, mine));
+                    return value;
+                } catch (RuntimeException | Error e) {
+                    calls.remove(key, mine);
+                    mine.future.completeExceptionally(e);
+                    throw e;
+                }
+            }
+
+            return call.await();
+        }
+    }
+
+    public void invalidate(K key) {
+        calls.remove(key);
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        calls.keySet().removeIf(predicate);
+    }
+
+    private static final class Call<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(V value) {
+            completedAt = System.nanoTime();
+            future.complete(value);
+        }
+
+        boolean isExpired(long holdNanos) {
+            long done = completedAt;
+            return done != 0 && System.nanoTime() - done > holdNanos;
+        }
+
+        V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                if (e.getCause() instanceof Error err) throw err;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ash.tracker_service.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking token bucket. Up to {@code burst} permits are available at once and they refill
+ * at {@code permitsPerSecond}. A caller that finds the bucket empty reserves the next permit
+ * and sleeps until it is due, so waiting callers are served in arrival order.
+ * A non-positive rate disables limiting.
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+
+    // Guarded by this; negative while permits are reserved ahead of time
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        if (permitsPerNano <= 0) return;
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            tokens -= 1;
+            if (tokens >= 0) return;
+            waitNanos = (long) Math.ceil(-tokens / permitsPerNano);
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
@@ -0,0 +1,147 @@
+package com.ash.tracker_service.service;
+
+import com.ash.tracker_service.entity.StockNewsItem.SheetVersion;
+import com.ash.tracker_service.service.StockNewsSyncServiceImpl.RowInsert;
+import com.ash.tracker_service.service.StockNewsSyncServiceImpl.RowsDiff;
+import com.ash.tracker_service.service.StockNewsSyncServiceImpl.SheetRows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockNewsSyncServiceImplTest {
+
+    @Test
+    void keepsVersionsOfSheetsThatWereNotFetched() {
+        SheetVersion a = version("a", rows("a1", "a2"));
+        SheetVersion b = version("b", rows("b1"));
+
+        RowsDiff diff = StockNewsSyncServiceImpl.diffRows(List.of(a, b), List.of(notModified(), notModified()));
+
+        assertEquals(List.of(a, b), diff.versions());
+        assertTrue(diff.inserts().isEmpty());
+        assertFalse(diff.rewrite());
+        assertEquals(3, diff.storedRows());
+    }
+
+    @Test
+    void sameRowsOnlyRefreshTheValidators() {
+        SheetVersion a = version("a", rows("a1", "a2"));
+
+        RowsDiff diff = StockNewsSyncServiceImpl.diffRows(List.of(a), List.of(fetched(rows("a1", "a2"), "etag-2")));
+
+        assertTrue(diff.inserts().isEmpty());
+        assertFalse(diff.rewrite());
+        assertEquals("etag-2", diff.versions().get(0).getEtag());
+        assertEquals(a.getContentHash(), diff.versions().get(0).getContentHash());
+        assertEquals(2, diff.versions().get(0).getRowCount());
+    }
+
+    @Test
+    void rowsAppendedToASheetAreInsertedAfterItsStoredRows() {
+        SheetVersion a = version("a", rows("a1", "a2"));
+        SheetVersion b = version("b", rows("b1", "b2"));
+        List<Map<String, String>> fetchedB = rows("b1", "b2", "b3", "b4");
+
+        RowsDiff diff = StockNewsSyncServiceImpl.diffRows(List.of(a, b), List.of(notModified(), fetched(fetchedB, "e")));
+
+        assertFalse(diff.rewrite());
+        assertEquals(1, diff.inserts().size());
+        RowInsert insert = diff.inserts().get(0);
+        assertEquals(4, insert.position());
+        assertEquals(rows("b3", "b4"), insert.rows());
+        assertEquals(StockNewsSyncServiceImpl.rowsHash(fetchedB), diff.versions().get(1).getContentHash());
+        assertEquals(4, diff.versions().get(1).getRowCount());
+        assertEquals(4, diff.storedRows());
+    }
+
+    @Test
+    void rowsPrependedToASheetAreInsertedAtItsStart() {
+        SheetVersion a = version("a", rows("a1", "a2"));
+        SheetVersion b = version("b", rows("b1", "b2"));
+
+        RowsDiff diff = StockNewsSyncServiceImpl.diffRows(List.of(a, b),
+                List.of(notModified(), fetched(rows("b0", "b1", "b2"), "e")));
+
+        assertFalse(diff.rewrite());
+        assertEquals(1, diff.inserts().size());
+        assertEquals(2, diff.inserts().get(0).position());
+        assertEquals(rows("b0"), diff.inserts().get(0).rows());
+    }
+
+    @Test
+    void editedOrRemovedRowsNeedARewrite() {
+        SheetVersion a = version("a", rows("a1", "a2", "a3"));
+
+        assertTrue(StockNewsSyncServiceImpl.diffRows(List.of(a), List.of(fetched(rows("a1", "x", "a3"), "e"))).rewrite());
+        assertTrue(StockNewsSyncServiceImpl.diffRows(List.of(a), List.of(fetched(rows("a1", "a2"), "e"))).rewrite());
+        assertTrue(StockNewsSyncServiceImpl.diffRows(List.of(a), List.of(fetched(rows("a1", "x", "a3", "a4"), "e"))).rewrite());
+    }
+
+    @Test
+    void reportsEveryInsertWhenSeveralSheetsGrew() {
+        SheetVersion a = version("a", rows("a1"));
+        SheetVersion b = version("b", rows("b1"));
+
+        RowsDiff diff = StockNewsSyncServiceImpl.diffRows(List.of(a, b),
+                List.of(fetched(rows("a1", "a2"), "e"), fetched(rows("b0", "b1"), "e")));
+
+        assertFalse(diff.rewrite());
+        assertEquals(2, diff.inserts().size());
+        assertEquals(1, diff.inserts().get(0).position());
+        assertEquals(1, diff.inserts().get(1).position());
+    }
+
+    @Test
+    void mergeKeepsStoredSlicesOfSheetsThatWereNotFetched() {
+        SheetVersion a = version("a", rows("a1", "a2"));
+        SheetVersion b = version("b", rows("b1"));
+        SheetVersion c = version("c", rows("c1", "c2"));
+        List<Map<String, String>> stored = rows("a1", "a2", "b1", "c1", "c2");
+
+        List<Map<String, String>> merged = StockNewsSyncServiceImpl.mergeRows(List.of(a, b, c),
+                List.of(notModified(), fetched(rows("x1", "x2", "x3"), "e"), notModified()), stored);
+
+        assertEquals(rows("a1", "a2", "x1", "x2", "x3", "c1", "c2"), merged);
+    }
+
+    @Test
+    void hashSeparatesKeysValuesAndRows() {
+        String base = StockNewsSyncServiceImpl.rowsHash(List.of(Map.of("k", "ab")));
+
+        assertEquals(base, StockNewsSyncServiceImpl.rowsHash(List.of(Map.of("k", "ab"))));
+        assertNotEquals(base, StockNewsSyncServiceImpl.rowsHash(List.of(Map.of("ka", "b"))));
+        assertNotEquals(base, StockNewsSyncServiceImpl.rowsHash(List.of(Map.of("k", "a"), Map.of("k", "b"))));
+        assertNotEquals(StockNewsSyncServiceImpl.rowsHash(rows("r1", "r2")), StockNewsSyncServiceImpl.rowsHash(rows("r2", "r1")));
+    }
+
+    private static List<Map<String, String>> rows(String... titles) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (String title : titles) {
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("title", title);
+            row.put("date", "2024-01-01");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static SheetVersion version(String source, List<Map<String, String>> rows) {
+        return new SheetVersion(source, "etag-1", null, StockNewsSyncServiceImpl.rowsHash(rows), rows.size());
+    }
+
+    private static SheetRows notModified() {
+        return new SheetRows(null, "etag-1", null);
+    }
+
+    private static SheetRows fetched(List<Map<String, String>> rows, String etag) {
+        return new SheetRows(rows, etag, null);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ash.tracker_service.util;
+
+import com.ash.tracker_service.dto.ExcelStockRowDTO;
+import com.ash.tracker_service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrokerLayoutTest {
+
+    @Test
+    void detectsGrowwHeader() {
+        BrokerLayout.Columns columns = detect("Stock Name", "ISIN", "Quantity", "Average buy price", "Buy value");
+
+        assertEquals(BrokerLayout.GROWW, columns.layout());
+        assertEquals(new BrokerLayout.Columns(BrokerLayout.GROWW, 0, 1, 2, 3), columns);
+    }
+
+    @Test
+    void detectsZerodhaHeaderIgnoringCaseAndPunctuation() {
+        BrokerLayout.Columns columns = detect("Instrument", "ISIN", "Qty.", "Avg. cost", "LTP");
+
+        assertEquals(new BrokerLayout.Columns(BrokerLayout.ZERODHA, 0, 1, 2, 3), columns);
+    }
+
+    @Test
+    void detectsUpstoxHeaderInAnyColumnOrder() {
+        BrokerLayout.Columns columns = detect("ISIN", "Avg Price", "Company Name", "Net Qty");
+
+        assertEquals(new BrokerLayout.Columns(BrokerLayout.UPSTOX, 2, 0, 3, 1), columns);
+    }
+
+    @Test
+    void fallsBackToGenericAliases() {
+        BrokerLayout.Columns columns = detect("Security Name", "ISIN Code", "Units", "Buy Price");
+
+        assertEquals(new BrokerLayout.Columns(BrokerLayout.GENERIC, 0, 1, 2, 3), columns);
+    }
+
+    @Test
+    void rejectsRowsThatAreNotAHoldingsHeader() {
+        assertTrue(BrokerLayout.detect(List.of("Client ID", "AB1234", "", "")).isEmpty());
+        assertTrue(BrokerLayout.detect(List.of("Stock Name", "ISIN", "Quantity")).isEmpty());
+        assertTrue(BrokerLayout.detect(null).isEmpty());
+    }
+
+    @Test
+    void buildsRowsFromMappedCells() {
+        BrokerLayout.Columns columns = detect("Stock Name", "ISIN", "Quantity", "Average buy price");
+
+        ExcelStockRowDTO row = columns.toRow(2, cells(" Infosys ", "INE009A01021", "1,200", "1,450.75"));
+
+        assertEquals("Infosys", row.getStockName());
+        assertEquals("INE009A01021", row.getIsin());
+        assertEquals(1200, row.getQuantity());
+        assertEquals(1450.75, row.getAverageBuyPrice());
+    }
+
+    @Test
+    void readsBlankNumbersAsZero() {
+        BrokerLayout.Columns columns = detect("Stock Name", "ISIN", "Quantity", "Average buy price");
+
+        ExcelStockRowDTO row = columns.toRow(2, cells("Infosys", "INE009A01021", " ", null));
+
+        assertEquals(0, row.getQuantity());
+        assertEquals(0.0, row.getAverageBuyPrice());
+    }
+
+    @Test
+    void skipsRowsWithoutNameOrIsin() {
+        BrokerLayout.Columns columns = detect("Stock Name", "ISIN", "Quantity", "Average buy price");
+
+        assertNull(columns.toRow(2, cells("Total", "", "10", "N/A")));
+        assertNull(columns.toRow(3, cells("", "", "", "")));
+    }
+
+    @Test
+    void rejectsUnparseableNumbersWithTheRowNumber() {
+        BrokerLayout.Columns columns = detect("Stock Name", "ISIN", "Quantity", "Average buy price");
+
+        InvalidRequestException quantity = assertThrows(InvalidRequestException.class,
+                () -> columns.toRow(7, cells("Infosys", "INE009A01021", "-", "100")));
+        InvalidRequestException price = assertThrows(InvalidRequestException.class,
+                () -> columns.toRow(8, cells("Infosys", "INE009A01021", "5", "N/A")));
+
+        assertEquals("Row 7: invalid quantity \"-\"", quantity.getMessage());
+        assertEquals("Row 8: invalid average buy price \"N/A\"", price.getMessage());
+    }
+
+    private static BrokerLayout.Columns detect(String... header) {
+        Optional<BrokerLayout.Columns> columns = BrokerLayout.detect(List.of(header));
+        assertTrue(columns.isPresent());
+        return columns.get();
+    }
+
+    private static IntFunction<String> cells(String... values) {
+        return i -> i < values.length ? values[i] : null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ash.tracker_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelimitedTokenizerTest {
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        List<List<String>> records = records("a,b,c\n1,2,3\n", ',');
+
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("1", "2", "3")), records);
+    }
+
+    @Test
+    void handlesCrlfAndMissingTrailingNewline() throws IOException {
+        List<List<String>> records = records("a,b\r\n1,2\r\n3,4", ',');
+
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "2"), List.of("3", "4")), records);
+    }
+
+    @Test
+    void skipsLeadingByteOrderMark() throws IOException {
+        List<List<String>> records = records("\uFEFFStock Name,ISIN\nInfosys,INE009A01021\n", ',');
+
+        assertEquals("Stock Name", records.get(0).get(0));
+    }
+
+    @Test
+    void unquotesFieldsWithDelimitersQuotesAndNewlines() throws IOException {
+        List<List<String>> records = records("\"Tata Motors, Ltd\",\"say \"\"hi\"\"\",\"two\r\nlines\"\n", ',');
+
+        assertEquals(List.of(List.of("Tata Motors, Ltd", "say \"hi\"", "two\r\nlines")), records);
+    }
+
+    @Test
+    void keepsQuotesInsideUnquotedFields() throws IOException {
+        List<List<String>> records = records("5\" pipe,x\n", ',');
+
+        assertEquals(List.of(List.of("5\" pipe", "x")), records);
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        List<List<String>> records = records("a,,c,\n", ',');
+
+        assertEquals(List.of(List.of("a", "", "c", "")), records);
+    }
+
+    @Test
+    void usesTheGivenDelimiter() throws IOException {
+        List<List<String>> records = records("a\tb,c\t\"d\te\"\n", '\t');
+
+        assertEquals(List.of(List.of("a", "b,c", "d\te")), records);
+    }
+
+    @Test
+    void reportsBlankRecordsAndOutOfRangeFields() throws IOException {
+        DelimitedTokenizer tokenizer = new DelimitedTokenizer(new StringReader("  \na\n"), ',');
+
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.isBlank());
+        assertTrue(tokenizer.next());
+        assertFalse(tokenizer.isBlank());
+        assertNull(tokenizer.field(1));
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void readsRecordsLongerThanTheBuffers() throws IOException {
+        String longValue = "x".repeat(20_000);
+        StringBuilder line = new StringBuilder(longValue);
+        for (int i = 0; i < 100; i++) line.append(',').append(i);
+
+        List<List<String>> records = records(line + "\n", ',');
+
+        assertEquals(101, records.get(0).size());
+        assertEquals(longValue, records.get(0).get(0));
+        assertEquals("99", records.get(0).get(100));
+    }
+
+    private static List<List<String>> records(String input, char delimiter) throws IOException {
+        DelimitedTokenizer tokenizer = new DelimitedTokenizer(new StringReader(input), delimiter);
+        List<List<String>> records = new ArrayList<>();
+        while (tokenizer.next()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < tokenizer.fieldCount(); i++) fields.add(tokenizer.field(i));
+            records.add(fields);
+        }
+        return records;
+    }
+}